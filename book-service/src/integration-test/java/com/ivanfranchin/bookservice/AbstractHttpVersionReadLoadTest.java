@@ -0,0 +1,100 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives closed-model read traffic against {@code GET /api/books/{id}}, for random books, with increasing numbers of
+ * concurrent clients. The application runs with the http2 profile, which serves HTTP/1.1 and h2c on the same port, so
+ * only the protocol the clients speak, and the number of connections they open, differ between the subclasses. Each
+ * level prints throughput, latency percentiles and errors, and writes its HdrHistogram.
+ */
+@Tag("load-test")
+@ActiveProfiles("http2")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+abstract class AbstractHttpVersionReadLoadTest extends AbstractTestcontainers {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    protected abstract HttpClient.Version httpVersion();
+
+    /**
+     * Number of HTTP clients the concurrent clients are spread over, each one with connections of its own.
+     */
+    protected abstract int httpClients(int concurrentClients);
+
+    @Test
+    void loadGetBookById() throws IOException, InterruptedException {
+        bookRepository.deleteAll();
+        List<String> ids = bookRepository.saveAll(IntStream.range(0, ClosedModelLoad.numberOfBooks())
+                        .mapToObj(i -> new Book("Author " + i, "Title " + i, BigDecimal.valueOf(i % 100 + 0.99)))
+                        .toList())
+                .stream().map(Book::getId).toList();
+
+        Supplier<HttpRequest> requests = () -> HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/books/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size()))))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        run(requests, 50, ClosedModelLoad.warmup());
+        for (int concurrentClients : ClosedModelLoad.concurrentClients(CONCURRENT_CLIENTS)) {
+            ClosedModelLoad.report(getClass().getSimpleName(), concurrentClients, run(requests, concurrentClients, ClosedModelLoad.measurement()));
+        }
+    }
+
+    private ClosedModelLoad.Result run(Supplier<HttpRequest> requests, int concurrentClients, Duration duration)
+            throws IOException, InterruptedException {
+        List<HttpClient> httpClients = newHttpClients(httpClients(concurrentClients), requests);
+        try {
+            return ClosedModelLoad.run(httpClients, requests, concurrentClients, duration);
+        } finally {
+            httpClients.forEach(HttpClient::close);
+        }
+    }
+
+    // Each HTTP client sends a first request on its own, so that its connection is open, and upgraded to h2c, before the
+    // load starts. Otherwise, the first requests sent at once would each open a connection of their own
+    private List<HttpClient> newHttpClients(int count, Supplier<HttpRequest> requests) throws IOException, InterruptedException {
+        List<HttpClient> httpClients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(httpVersion())
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpResponse<Void> response = httpClient.send(requests.get(), HttpResponse.BodyHandlers.discarding());
+            assertThat(response.version()).isEqualTo(httpVersion());
+            httpClients.add(httpClient);
+        }
+        return httpClients;
+    }
+
+    private static final List<Integer> CONCURRENT_CLIENTS = List.of(100, 1000, 2000, 4000);
+}
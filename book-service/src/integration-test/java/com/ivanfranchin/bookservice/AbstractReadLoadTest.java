@@ -0,0 +1,61 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Drives closed-model read traffic against {@code GET /api/books/page}, a query that is not cached and so always
+ * reaches MongoDB, with increasing numbers of concurrent clients. Each level prints throughput, latency percentiles
+ * and errors, and writes its HdrHistogram, so that the platform and the virtual thread executions can be compared side
+ * by side.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+abstract class AbstractReadLoadTest extends AbstractTestcontainers {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void loadGetBooksPage() throws IOException, InterruptedException {
+        bookRepository.deleteAll();
+        bookRepository.saveAll(IntStream.range(0, ClosedModelLoad.numberOfBooks())
+                .mapToObj(i -> new Book("Author " + i, "Title " + i, BigDecimal.valueOf(i % 100 + 0.99)))
+                .toList());
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books/page?size=20"))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        ClosedModelLoad.run(List.of(httpClient), () -> request, 50, ClosedModelLoad.warmup());
+        for (int concurrentClients : ClosedModelLoad.concurrentClients(CONCURRENT_CLIENTS)) {
+            ClosedModelLoad.report(getClass().getSimpleName(), concurrentClients,
+                    ClosedModelLoad.run(List.of(httpClient), () -> request, concurrentClients, ClosedModelLoad.measurement()));
+        }
+    }
+
+    private static final List<Integer> CONCURRENT_CLIENTS = List.of(100, 500, 1000, 2000, 4000);
+}
@@ -31,6 +31,7 @@ public abstract class AbstractTestcontainers {
     private static final GenericContainer<?> keycloakContainer = new GenericContainer<>("quay.io/keycloak/keycloak:26.2.1");
 
     protected static Keycloak keycloakBookService;
+    private static String keycloakServerUrl;
 
     @DynamicPropertySource
     private static void dynamicProperties(DynamicPropertyRegistry registry) {
@@ -52,11 +53,21 @@ public abstract class AbstractTestcontainers {
         registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", () -> issuerUri);
 
         if (keycloakBookService == null) {
-            String keycloakServerUrl = String.format("http://%s:%s", keycloakHost, keycloakPort);
+            keycloakServerUrl = String.format("http://%s:%s", keycloakHost, keycloakPort);
             setupKeycloak(keycloakServerUrl);
         }
     }
 
+    /**
+     * Logs the user in again, which opens a new session in Keycloak, so that the access tokens of the client returned
+     * differ from those of {@link #keycloakBookService} and of the other sessions.
+     */
+    protected static Keycloak newKeycloakBookServiceSession() {
+        Keycloak keycloakSession = keycloakBookService(keycloakServerUrl);
+        keycloakSession.tokenManager().grantToken();
+        return keycloakSession;
+    }
+
     private static void setupKeycloak(String keycloakServerUrl) {
         Keycloak keycloakAdmin = KeycloakBuilder.builder()
                 .serverUrl(keycloakServerUrl)
@@ -98,7 +109,11 @@ public abstract class AbstractTestcontainers {
 
         keycloakAdmin.realms().create(realmRepresentation);
 
-        keycloakBookService = KeycloakBuilder.builder()
+        keycloakBookService = keycloakBookService(keycloakServerUrl);
+    }
+
+    private static Keycloak keycloakBookService(String keycloakServerUrl) {
+        return KeycloakBuilder.builder()
                 .serverUrl(keycloakServerUrl)
                 .realm(COMPANY_SERVICE_REALM_NAME)
                 .username(USER_USERNAME)
@@ -0,0 +1,109 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the former unanchored {@code $regex} author search with the indexed prefix search on 1M books.
+ * It takes a few minutes, so it only runs when {@code AUTHOR_SEARCH_BENCHMARK=true}, e.g.
+ * {@code AUTHOR_SEARCH_BENCHMARK=true ./gradlew book-service:integrationTest --tests '*AuthorSearchBenchmark'}
+ */
+@Testcontainers
+@DataMongoTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "AUTHOR_SEARCH_BENCHMARK", matches = "true")
+class AuthorSearchBenchmark {
+
+    @Container
+    @ServiceConnection
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:8.0.6");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeAll
+    void seed() {
+        bookRepository.deleteAll();
+        for (int batch = 0; batch < NUMBER_OF_BOOKS / BATCH_SIZE; batch++) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Book.class);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int n = batch * BATCH_SIZE + i;
+                String authorName = String.format("Author %05d Surname", n % NUMBER_OF_AUTHORS);
+                bulkOperations.insert(new Book(authorName, "Title " + n, BigDecimal.valueOf(n % 100 + 0.99)));
+            }
+            bulkOperations.execute();
+        }
+    }
+
+    @Test
+    void compareRegexAndPrefixSearch() {
+        Query regexQuery = Query.query(Criteria.where("authorName").regex("Author 0042")).limit(LIMIT);
+        long[] regexLatencies = measure(() -> mongoTemplate.find(regexQuery, Book.class));
+        long[] prefixLatencies = measure(() -> bookRepository.findByNormalizedAuthorNamePrefix("author 0042", "author 0043", Limit.of(LIMIT)));
+
+        report("unanchored $regex on authorName", regexLatencies);
+        report("prefix range on normalizedAuthorName", prefixLatencies);
+
+        assertThat(percentile(prefixLatencies, 50)).isLessThan(percentile(regexLatencies, 50));
+    }
+
+    private long[] measure(Supplier<List<Book>> search) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            search.get();
+        }
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            List<Book> books = search.get();
+            latencies.add(System.nanoTime() - start);
+            assertThat(books).hasSize(LIMIT);
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void report(String name, long[] latencies) {
+        System.out.printf("%-40s p50=%8.2fms p90=%8.2fms p99=%8.2fms (%d books)%n", name,
+                percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6, percentile(latencies, 99) / 1e6,
+                NUMBER_OF_BOOKS);
+    }
+
+    private long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static final int NUMBER_OF_BOOKS = 1_000_000;
+    private static final int NUMBER_OF_AUTHORS = 10_000;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int LIMIT = 1000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 100;
+}
@@ -0,0 +1,109 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.BookCacheSynchronizer;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookService;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.ivanfranchin.bookservice.config.CacheConfig.BOOKS_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * The writes of the other replicas are simulated by writing straight to MongoDB, so that the {@code @CacheEvict} of
+ * this one is not involved.
+ */
+@ActiveProfiles("cache-sync")
+@SpringBootTest(properties = "book.cache-sync.max-await-time=200ms")
+class BookCacheSyncTests extends AbstractTestcontainers {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BookCacheSynchronizer bookCacheSynchronizer;
+
+    private Cache booksCache;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        booksCache = cacheManager.getCache(BOOKS_CACHE);
+        booksCache.clear();
+    }
+
+    @Test
+    void testBookUpdatedByAnotherReplicaIsEvicted() {
+        Book book = getCachedBook();
+
+        mongoTemplate.updateFirst(byId(book.getId()), new Update().set("price", new BigDecimal("9.99")), Book.class);
+
+        await().atMost(TIMEOUT).untilAsserted(() -> assertThat(booksCache.get(book.getId())).isNull());
+        assertThat(bookService.validateAndGetBookById(book.getId()).getPrice()).isEqualByComparingTo("9.99");
+    }
+
+    @Test
+    void testBookDeletedByAnotherReplicaIsEvicted() {
+        Book book = getCachedBook();
+
+        mongoTemplate.remove(byId(book.getId()), Book.class);
+
+        await().atMost(TIMEOUT).untilAsserted(() -> assertThat(booksCache.get(book.getId())).isNull());
+    }
+
+    @Test
+    void testChangesMadeWhileStoppedAreReplayedFromTheLastResumeToken() {
+        Book book = getCachedBook();
+        // Once a change has been seen, the stream has a resume token to restart from
+        Book otherBook = getCachedBook();
+        mongoTemplate.updateFirst(byId(otherBook.getId()), new Update().set("title", "Java 17"), Book.class);
+        await().atMost(TIMEOUT).untilAsserted(() -> assertThat(booksCache.get(otherBook.getId())).isNull());
+
+        bookCacheSynchronizer.stop();
+        try {
+            mongoTemplate.updateFirst(byId(book.getId()), new Update().set("title", "Java 21"), Book.class);
+            assertThat(booksCache.get(book.getId())).isNotNull();
+        } finally {
+            bookCacheSynchronizer.start();
+        }
+
+        await().atMost(TIMEOUT).untilAsserted(() -> assertThat(booksCache.get(book.getId())).isNull());
+        assertThat(bookService.validateAndGetBookById(book.getId()).getTitle()).isEqualTo("Java 21");
+    }
+
+    private Book getCachedBook() {
+        Book book = bookRepository.save(new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99)));
+        bookService.validateAndGetBookById(book.getId());
+        assertThat(booksCache.get(book.getId())).isNotNull();
+        return book;
+    }
+
+    private Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+}
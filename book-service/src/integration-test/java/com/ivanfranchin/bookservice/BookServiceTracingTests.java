@@ -0,0 +1,94 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "management.tracing.sampling.probability=1.0")
+class BookServiceTracingTests extends AbstractTestcontainers {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateBookIsTracedFromSecurityToMongoDB() {
+        String accessToken = keycloakBookService.tokenManager().grantToken().getToken();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+        headers.set(TRACEPARENT_HEADER, String.format("00-%s-%s-01", TRACE_ID, PARENT_SPAN_ID));
+
+        CreateBookRequest createBookRequest = new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        ResponseEntity<BookResponse> responseEntity = testRestTemplate.postForEntity(API_BOOKS_URL, new HttpEntity<>(createBookRequest, headers), BookResponse.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // Spans are exported in batches, in the background
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() -> assertThat(getSpanNames(TRACE_ID))
+                .contains("http post /api/books", "jwt decode", "jwt convert", "insert books")
+                .anyMatch(name -> name.startsWith("security filterchain"))
+                .anyMatch(name -> name.startsWith("authenticate"))
+                .anyMatch(name -> name.endsWith("#createBook"))
+                .anyMatch(name -> name.endsWith("#saveBook")));
+
+        // The trace context informed in the W3C traceparent header is continued, not replaced
+        SpanData serverSpan = getSpans(TRACE_ID).stream().filter(span -> span.getKind() == SpanKind.SERVER).findFirst().orElseThrow();
+        assertThat(serverSpan.getParentSpanContext().isRemote()).isTrue();
+        assertThat(serverSpan.getParentSpanId()).isEqualTo(PARENT_SPAN_ID);
+    }
+
+    private List<SpanData> getSpans(String traceId) {
+        return spanExporter.getFinishedSpanItems().stream().filter(span -> span.getTraceId().equals(traceId)).toList();
+    }
+
+    private List<String> getSpanNames(String traceId) {
+        return getSpans(traceId).stream().map(SpanData::getName).toList();
+    }
+
+    @TestConfiguration
+    static class InMemorySpanExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    private static final String API_BOOKS_URL = "/api/books";
+    private static final String TRACEPARENT_HEADER = "traceparent";
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+}
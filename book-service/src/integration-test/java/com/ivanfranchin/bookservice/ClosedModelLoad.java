@@ -0,0 +1,98 @@
+package com.ivanfranchin.bookservice;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closed-model load shared by the read load tests: every client sends its next request as soon as the previous one
+ * completes, until the duration is over. Clients are spread over the HTTP clients informed, in turn, so that the
+ * connections they use can be controlled by the caller. Latencies are recorded in an HdrHistogram and reported as
+ * {@link MixedTrafficLoadTest} does.
+ *
+ * <p>The read load tests only run with {@code ./gradlew book-service:loadTest}, which informs the settings below as
+ * system properties.
+ */
+final class ClosedModelLoad {
+
+    private ClosedModelLoad() {
+    }
+
+    static int numberOfBooks() {
+        return Integer.getInteger("loadTest.books", 10_000);
+    }
+
+    static Duration warmup() {
+        return Duration.ofSeconds(Integer.getInteger("loadTest.warmupSeconds", 10));
+    }
+
+    static Duration measurement() {
+        return Duration.ofSeconds(Integer.getInteger("loadTest.durationSeconds", 60));
+    }
+
+    // e.g. "100,1000,4000"
+    static List<Integer> concurrentClients(List<Integer> defaultConcurrentClients) {
+        String concurrentClients = System.getProperty("loadTest.clients");
+        if (concurrentClients == null || concurrentClients.isBlank()) {
+            return defaultConcurrentClients;
+        }
+        return Arrays.stream(concurrentClients.split(",")).map(String::trim).map(Integer::valueOf).toList();
+    }
+
+    static Result run(List<HttpClient> httpClients, Supplier<HttpRequest> requests, int concurrentClients, Duration duration)
+            throws InterruptedException {
+        Histogram histogram = new ConcurrentHistogram(MAX_TRACKABLE_LATENCY, 3);
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrentClients; i++) {
+                HttpClient httpClient = httpClients.get(i % httpClients.size());
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(requests.get(), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                histogram.recordValue(Math.min(System.nanoTime() - start, MAX_TRACKABLE_LATENCY));
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return new Result(histogram, errors.get(), duration);
+    }
+
+    /**
+     * Prints the level and writes its distribution to {@code <report dir>/<test>/<clients>-clients.hgrm}, so that the
+     * distributions of two tests can be plotted together.
+     */
+    static void report(String name, int concurrentClients, Result result) throws IOException {
+        String label = concurrentClients + "-clients";
+        LatencyReport.print(name, label, result.histogram(), result.duration(), result.errors());
+        LatencyReport.write(LatencyReport.reportDir().resolve(name).resolve(label + ".hgrm"), result.histogram());
+        assertThat(result.histogram().getTotalCount()).isPositive();
+    }
+
+    record Result(Histogram histogram, int errors, Duration duration) {
+    }
+
+    private static final long MAX_TRACKABLE_LATENCY = Duration.ofSeconds(30).toNanos();
+}
@@ -0,0 +1,20 @@
+package com.ivanfranchin.bookservice;
+
+import java.net.http.HttpClient;
+
+/**
+ * Baseline for {@link Http2ReadLoadTest}: HTTP/1.1 serves one request at a time per connection, so a single HTTP
+ * client ends up with a connection for every request in flight.
+ */
+class Http11ReadLoadTest extends AbstractHttpVersionReadLoadTest {
+
+    @Override
+    protected HttpClient.Version httpVersion() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+
+    @Override
+    protected int httpClients(int concurrentClients) {
+        return 1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ivanfranchin.bookservice;
+
+import java.net.http.HttpClient;
+
+/**
+ * The requests are multiplexed over an HTTP/2 connection per {@value #STREAMS_PER_CONNECTION} clients, kept below
+ * {@code tomcat.http2.max-concurrent-streams} so that no stream is refused.
+ */
+class Http2ReadLoadTest extends AbstractHttpVersionReadLoadTest {
+
+    @Override
+    protected HttpClient.Version httpVersion() {
+        return HttpClient.Version.HTTP_2;
+    }
+
+    @Override
+    protected int httpClients(int concurrentClients) {
+        return Math.ceilDiv(concurrentClients, STREAMS_PER_CONNECTION);
+    }
+
+    private static final int STREAMS_PER_CONNECTION = 100;
+}
@@ -0,0 +1,43 @@
+package com.ivanfranchin.bookservice;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Output shared by the load tests: a line per HdrHistogram with the throughput and the latency percentiles, and the
+ * full percentile distribution written as a {@code .hgrm} file, in milliseconds, to the report directory informed by
+ * {@code ./gradlew book-service:loadTest}.
+ */
+final class LatencyReport {
+
+    private LatencyReport() {
+    }
+
+    static Path reportDir() {
+        return Path.of(System.getProperty("loadTest.reportDir", "build/reports/loadTest"));
+    }
+
+    static void print(String name, String label, Histogram histogram, Duration duration, int errors) {
+        System.out.printf("[%s] %-12s throughput=%8.1f req/s p50=%8.2fms p90=%8.2fms p99=%8.2fms p99.9=%8.2fms max=%8.2fms errors=%d%n",
+                name, label, histogram.getTotalCount() / (double) duration.toSeconds(),
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()), errors);
+    }
+
+    static void write(Path reportFile, Histogram histogram) throws IOException {
+        Files.createDirectories(reportFile.getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(reportFile))) {
+            histogram.outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,291 @@
+package com.ivanfranchin.bookservice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds the books collection and then drives a mix of reads and writes against the running application, with access
+ * tokens issued by the Keycloak container. The writes rotate through the tokens of several Keycloak sessions, opened
+ * before the run, so that the JWTs are not all served from the authentication cache after the first request.
+ *
+ * <p>Requests are issued by an open-model generator: they are sent at a fixed rate, whether or not the previous ones
+ * have completed, and their latency is measured from the time they were scheduled to be sent. A slow application
+ * therefore shows up as higher latency instead of as a lower request rate, as it would with a fixed number of clients.
+ * Throughput and latency percentiles are recorded per endpoint in HdrHistograms, printed in the test output and
+ * written as {@code .hgrm} files to the report directory.
+ *
+ * <p>It only runs with {@code ./gradlew book-service:loadTest}, which informs the settings below as system properties.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class MixedTrafficLoadTest extends AbstractTestcontainers {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int numberOfBooks = Integer.getInteger("loadTest.books", 10_000);
+    private final int rate = Integer.getInteger("loadTest.rate", 500);
+    private final Duration warmup = Duration.ofSeconds(Integer.getInteger("loadTest.warmupSeconds", 10));
+    private final Duration measurement = Duration.ofSeconds(Integer.getInteger("loadTest.durationSeconds", 60));
+    private final Map<Endpoint, Integer> mix = Endpoint.parseMix(System.getProperty("loadTest.mix", DEFAULT_MIX));
+    private final int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    private final int numberOfTokens = Integer.getInteger("loadTest.tokens", 100);
+    private final Path reportDir = LatencyReport.reportDir();
+    private final List<Keycloak> keycloakSessions = new ArrayList<>();
+    private final Set<String> tokensUsed = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void loadMixedTraffic() throws Exception {
+        List<String> bookIds = seed();
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("[%s] books=%d rate=%d req/s warmup=%ds duration=%ds mix=%s tokens=%d%n", getClass().getSimpleName(),
+                numberOfBooks, rate, warmup.toSeconds(), measurement.toSeconds(), mix, numberOfTokens);
+
+        try {
+            openKeycloakSessions();
+            run(httpClient, bookIds, warmup);
+            Result result = run(httpClient, bookIds, measurement);
+
+            report(result);
+            assertThat(result.histograms().values()).anyMatch(histogram -> histogram.getTotalCount() > 0);
+        } finally {
+            keycloakSessions.forEach(Keycloak::close);
+        }
+    }
+
+    private List<String> seed() {
+        bookRepository.deleteAll();
+        List<String> bookIds = new ArrayList<>(numberOfBooks);
+        for (int from = 0; from < numberOfBooks; from += SEED_BATCH_SIZE) {
+            List<Book> books = IntStream.range(from, Math.min(from + SEED_BATCH_SIZE, numberOfBooks))
+                    .mapToObj(i -> new Book("Author " + i % NUMBER_OF_AUTHORS, "Title " + i, BigDecimal.valueOf(i % 100 + 0.99)))
+                    .toList();
+            bookRepository.saveAll(books).forEach(book -> bookIds.add(book.getId()));
+        }
+        return bookIds;
+    }
+
+    // Opened before the run, so that issuing the tokens is not measured. Each session refreshes its token when it expires
+    private void openKeycloakSessions() {
+        for (int i = 0; i < numberOfTokens; i++) {
+            keycloakSessions.add(newKeycloakBookServiceSession());
+        }
+    }
+
+    private Result run(HttpClient httpClient, List<String> bookIds, Duration duration) throws InterruptedException {
+        tokensUsed.clear();
+        Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, AtomicInteger> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(MAX_TRACKABLE_LATENCY, 3));
+            errors.put(endpoint, new AtomicInteger());
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicLong maxInFlight = new AtomicLong();
+        SplittableRandom random = new SplittableRandom(42);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long numberOfRequests = duration.toSeconds() * rate;
+        long start = System.nanoTime();
+        for (long i = 0; i < numberOfRequests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Endpoint endpoint = pick(random);
+            HttpRequest request = endpoint.request(this, bookIds.get(random.nextInt(bookIds.size())), i);
+
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, throwable) -> {
+                        // Measured from the intended start, so that the time a request waited to be sent is not omitted
+                        long latency = System.nanoTime() - intendedStart;
+                        if (throwable == null && response.statusCode() == endpoint.expectedStatus) {
+                            histograms.get(endpoint).recordValue(Math.min(latency, MAX_TRACKABLE_LATENCY));
+                        } else {
+                            errors.get(endpoint).incrementAndGet();
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return new Result(histograms, errors, duration, maxInFlight.get(), tokensUsed.size());
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(totalWeight);
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void report(Result result) throws IOException {
+        long totalCount = 0;
+        int totalErrors = 0;
+        for (Endpoint endpoint : mix.keySet()) {
+            Histogram histogram = result.histograms().get(endpoint);
+            int errors = result.errors().get(endpoint).get();
+            LatencyReport.print(getClass().getSimpleName(), endpoint.label, histogram, result.duration(), errors);
+            LatencyReport.write(reportDir.resolve(endpoint.label + ".hgrm"), histogram);
+            totalCount += histogram.getTotalCount();
+            totalErrors += errors;
+        }
+        System.out.printf("[%s] %-12s throughput=%8.1f req/s errors=%d max-in-flight=%d distinct-tokens=%d%n",
+                getClass().getSimpleName(), "total", totalCount / (double) result.duration().toSeconds(), totalErrors,
+                result.maxInFlight(), result.distinctTokens());
+    }
+
+    private HttpRequest.Builder requestBuilder(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private HttpRequest.Builder authenticatedRequestBuilder(String method, String path, Object body, long sequence) {
+        // Each token manager returns the access token of its session and only asks Keycloak for a new one when it expires
+        Keycloak keycloakSession = keycloakSessions.get((int) (sequence % keycloakSessions.size()));
+        String accessToken = keycloakSession.tokenManager().getAccessTokenString();
+        tokensUsed.add(accessToken);
+        try {
+            return requestBuilder(path)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private enum Endpoint {
+
+        GET_BY_ID("get-by-id", 200) {
+            @Override
+            HttpRequest request(MixedTrafficLoadTest test, String bookId, long sequence) {
+                return test.requestBuilder("/api/books/" + bookId).GET().build();
+            }
+        },
+        GET_PAGE("get-page", 200) {
+            @Override
+            HttpRequest request(MixedTrafficLoadTest test, String bookId, long sequence) {
+                return test.requestBuilder("/api/books/page?size=20").GET().build();
+            }
+        },
+        CREATE("create", 201) {
+            @Override
+            HttpRequest request(MixedTrafficLoadTest test, String bookId, long sequence) {
+                CreateBookRequest createBookRequest = new CreateBookRequest("Load Test Author", "Title " + sequence, BigDecimal.valueOf(9.99));
+                return test.authenticatedRequestBuilder("POST", "/api/books", createBookRequest, sequence).build();
+            }
+        },
+        UPDATE("update", 200) {
+            @Override
+            HttpRequest request(MixedTrafficLoadTest test, String bookId, long sequence) {
+                UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, null, BigDecimal.valueOf(sequence % 100 + 0.99));
+                return test.authenticatedRequestBuilder("PATCH", "/api/books/" + bookId, updateBookRequest, sequence).build();
+            }
+        };
+
+        private final String label;
+        private final int expectedStatus;
+
+        Endpoint(String label, int expectedStatus) {
+            this.label = label;
+            this.expectedStatus = expectedStatus;
+        }
+
+        abstract HttpRequest request(MixedTrafficLoadTest test, String bookId, long sequence);
+
+        // e.g. "get-by-id=60,get-page=20,create=10,update=10"
+        static Map<Endpoint, Integer> parseMix(String mix) {
+            Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+            for (String entry : mix.split(",")) {
+                String[] labelAndWeight = entry.trim().split("=");
+                Endpoint endpoint = fromLabel(labelAndWeight[0].trim());
+                int weight = Integer.parseInt(labelAndWeight[1].trim());
+                if (weight > 0) {
+                    weights.put(endpoint, weight);
+                }
+            }
+            if (weights.isEmpty()) {
+                throw new IllegalArgumentException("The load test mix has no endpoint with a positive weight: " + mix);
+            }
+            return weights;
+        }
+
+        private static Endpoint fromLabel(String label) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.label.equals(label)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown load test endpoint: " + label);
+        }
+    }
+
+    private record Result(Map<Endpoint, Histogram> histograms, Map<Endpoint, AtomicInteger> errors, Duration duration,
+                          long maxInFlight, int distinctTokens) {
+    }
+
+    private static final String DEFAULT_MIX = "get-by-id=60,get-page=20,create=10,update=10";
+    private static final int NUMBER_OF_AUTHORS = 1_000;
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long MAX_TRACKABLE_LATENCY = REQUEST_TIMEOUT.toNanos();
+}
@@ -0,0 +1,7 @@
+package com.ivanfranchin.bookservice;
+
+/**
+ * Baseline for {@link VirtualThreadsReadLoadTest}: Tomcat's default platform thread pool and MongoDB driver pool.
+ */
+class PlatformThreadsReadLoadTest extends AbstractReadLoadTest {
+}
@@ -0,0 +1,42 @@
+package com.ivanfranchin.bookservice;
+
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookBatchService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookService;
+import com.ivanfranchin.bookservice.book.ReactiveBookService;
+import com.mongodb.client.MongoClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ReactiveServerTests extends AbstractTestcontainers {
+
+    @Autowired
+    private ReactiveWebServerApplicationContext applicationContext;
+
+    @Test
+    void testReactiveProfileIsServedByNetty() {
+        assertThat(applicationContext.getWebServer()).isInstanceOf(NettyWebServer.class);
+    }
+
+    @Test
+    void testReactiveProfileDoesNotCreateTheBlockingMongoDBClientNorServices() {
+        assertThat(applicationContext.getBeanNamesForType(MongoClient.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(BookRepository.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(BookService.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(BookBatchService.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(AuthorService.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(BookCatalogueSnapshot.class)).isEmpty();
+        assertThat(applicationContext.getBean(ReactiveBookService.class)).isNotNull();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ivanfranchin.bookservice;
+
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("virtual-threads")
+class VirtualThreadsReadLoadTest extends AbstractReadLoadTest {
+}
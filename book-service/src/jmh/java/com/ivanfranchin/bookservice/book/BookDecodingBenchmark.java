@@ -0,0 +1,109 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Decoding of a list of book documents into {@link BookResponse}, through the {@link Book} entity, as before, and
+ * straight through {@link BookViewCodec}, with every field and with only the title projected.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookDecodingBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    private MappingMongoConverter mongoConverter;
+    private DocumentCodec documentCodec;
+    private Codec<BookView> bookViewCodec;
+    private List<RawBsonDocument> documents;
+    private List<RawBsonDocument> titleDocuments;
+
+    @Setup
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        mongoConverter.afterPropertiesSet();
+        documentCodec = new DocumentCodec();
+        bookViewCodec = BookViewCodec.registry(MongoClientSettings.getDefaultCodecRegistry()).get(BookView.class);
+
+        documents = IntStream.range(0, size).mapToObj(this::newDocument).toList();
+        titleDocuments = documents.stream()
+                .map(document -> new Document("_id", document.get("_id")).append("title", document.get("title")).append("version", document.get("version")))
+                .map(document -> new RawBsonDocument(document, documentCodec))
+                .toList();
+    }
+
+    @Benchmark
+    public List<BookResponse> throughEntity() {
+        List<BookResponse> bookResponses = new ArrayList<>(documents.size());
+        for (RawBsonDocument rawDocument : documents) {
+            Document document = rawDocument.decode(documentCodec);
+            bookResponses.add(BookResponse.from(mongoConverter.read(Book.class, document)));
+        }
+        return bookResponses;
+    }
+
+    @Benchmark
+    public List<BookResponse> throughViewCodec() {
+        return decodeViews(documents);
+    }
+
+    @Benchmark
+    public List<BookResponse> throughViewCodecProjectingTitle() {
+        return decodeViews(titleDocuments);
+    }
+
+    private List<BookResponse> decodeViews(List<RawBsonDocument> rawDocuments) {
+        List<BookResponse> bookResponses = new ArrayList<>(rawDocuments.size());
+        for (RawBsonDocument rawDocument : rawDocuments) {
+            try (BsonBinaryReader reader = new BsonBinaryReader(rawDocument.getByteBuffer().asNIO())) {
+                bookResponses.add(BookResponse.from(bookViewCodec.decode(reader, DECODER_CONTEXT)));
+            }
+        }
+        return bookResponses;
+    }
+
+    private RawBsonDocument newDocument(int i) {
+        Book book = BookResponseMappingBenchmark.newBook(i);
+        book.setVersion((long) i % 5);
+        Document document = new Document();
+        mongoConverter.write(book, document);
+        return new RawBsonDocument(document, documentCodec);
+    }
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+}
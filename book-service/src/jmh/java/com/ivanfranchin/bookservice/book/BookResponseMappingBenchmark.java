@@ -0,0 +1,59 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping of books to {@link BookResponse}, one at a time and as a list, the way {@link BookController#getBooks} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookResponseMappingBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    private Book book;
+    private List<Book> books;
+
+    @Setup
+    public void setUp() {
+        book = newBook(0);
+        books = IntStream.range(0, size).mapToObj(BookResponseMappingBenchmark::newBook).toList();
+    }
+
+    @Benchmark
+    public BookResponse from() {
+        return BookResponse.from(book);
+    }
+
+    @Benchmark
+    public List<BookResponse> fromList() {
+        return books.stream().map(BookResponse::from).collect(Collectors.toList());
+    }
+
+    static Book newBook(int i) {
+        return new Book(String.format("%024x", i), "Ivan Franchin " + (i % 100), "SpringBoot " + i, BigDecimal.valueOf(10 + i % 90, 2));
+    }
+}
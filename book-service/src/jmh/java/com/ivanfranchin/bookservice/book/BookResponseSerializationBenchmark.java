@@ -0,0 +1,67 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson serialization of a list of {@link BookResponse}, as returned by {@code GET /api/books}, in each of the formats
+ * negotiated by Accept. The output is discarded, so that only serialization is measured, not the growth of an
+ * in-memory buffer. The size of the payload of each format is printed once, at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookResponseSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectWriter objectWriter;
+    private List<BookResponse> bookResponses;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder objectMapperBuilder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        objectWriter = objectMapperBuilder.build().writerFor(new TypeReference<List<BookResponse>>() {
+        });
+        bookResponses = IntStream.range(0, size)
+                .mapToObj(i -> BookResponse.from(BookResponseMappingBenchmark.newBook(i)))
+                .toList();
+        System.out.printf("%n%s payload of %d books: %d bytes%n", format, size, objectWriter.writeValueAsBytes(bookResponses).length);
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        objectWriter.writeValue(OutputStream.nullOutputStream(), bookResponses);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying an {@link UpdateBookRequest} to a loaded book, with {@link Book#updateFrom}, compared with building the
+ * {@code $set} sent in a findAndModify, with {@link Book#toUpdate}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookUpdateBenchmark {
+
+    private Book book;
+    private UpdateBookRequest updateBookRequest;
+
+    @Setup
+    public void setUp() {
+        book = BookResponseMappingBenchmark.newBook(0);
+        updateBookRequest = new UpdateBookRequest("Ivan G. Franchin", "Java 21", BigDecimal.valueOf(20.5));
+    }
+
+    @Benchmark
+    public Book updateFrom() {
+        Book.updateFrom(updateBookRequest, book);
+        return book;
+    }
+
+    @Benchmark
+    public Update toUpdate() {
+        return Book.toUpdate(updateBookRequest);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ivanfranchin.bookservice.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares {@link JwtAuthConverter#convert} with the stream-based conversion it replaced, for a Keycloak-like token.
+ * Run it with the gc profiler (configured in build.gradle) to get the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthConverterBenchmark {
+
+    private JwtAuthConverterProperties properties;
+    private JwtAuthConverter jwtAuthConverter;
+    private JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        properties = new JwtAuthConverterProperties();
+        properties.setResourceId("book-service");
+        properties.setPrincipalAttribute("preferred_username");
+        jwtAuthConverter = new JwtAuthConverter(properties);
+        jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+        Instant now = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("9a5b4c2e-2f0c-4a8e-9d55-1f5b3f8e6c11")
+                .claim("preferred_username", "ivan.franchin")
+                .claim("scope", "openid email profile")
+                .claim("resource_access", Map.of(
+                        "book-service", Map.of("roles", List.of("manage_books")),
+                        "account", Map.of("roles", List.of("manage-account", "view-profile"))))
+                .issuedAt(now)
+                .expiresAt(now.plus(5, ChronoUnit.MINUTES))
+                .build();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return jwtAuthConverter.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convertWithStreams() {
+        Collection<GrantedAuthority> authorities = Stream.concat(
+                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
+                extractResourceRolesWithStreams(jwt).stream()).collect(Collectors.toSet());
+        return new JwtAuthenticationToken(jwt, authorities, jwt.getClaim(properties.getPrincipalAttribute()));
+    }
+
+    // Previous implementation of JwtAuthConverter.extractResourceRoles, kept as the baseline
+    @SuppressWarnings("unchecked")
+    private Collection<? extends GrantedAuthority> extractResourceRolesWithStreams(Jwt jwt) {
+        Map<String, Object> resourceAccess = jwt.getClaim("resource_access");
+        Map<String, Object> resource;
+        Collection<String> resourceRoles;
+        if (resourceAccess == null
+                || (resource = (Map<String, Object>) resourceAccess.get(properties.getResourceId())) == null
+                || (resourceRoles = (Collection<String>) resource.get("roles")) == null) {
+            return Collections.emptySet();
+        }
+        return resourceRoles.stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,33 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the authors read model from the books when it is empty, e.g. on the first start after it was introduced. It
+ * runs before the application reports itself ready, so the authors endpoints are not served empty.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Conditional(NotReactiveWebApplicationCondition.class)
+@ConditionalOnProperty(prefix = "book.authors", name = "backfill-on-startup", havingValue = "true", matchIfMissing = true)
+public class AuthorBackfill implements ApplicationRunner {
+
+    private final AuthorService authorService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (authorService.hasAuthors()) {
+            return;
+        }
+        long authorCount = authorService.rebuildAuthors();
+        log.info("Authors backfilled from the books, {} authors", authorCount);
+    }
+}
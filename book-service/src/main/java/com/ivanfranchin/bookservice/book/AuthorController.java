@@ -0,0 +1,64 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.AuthorResponse;
+import io.micrometer.observation.annotation.Observed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+import static com.ivanfranchin.bookservice.config.SwaggerConfig.BEARER_KEY_SECURITY_SCHEME;
+
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Observed(name = "book.controller")
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/authors")
+public class AuthorController {
+
+    private final AuthorService authorService;
+    private final BookProperties bookProperties;
+
+    @Operation(summary = "Get list of authors, sorted by name, with the number of books and the price range of each. It can be filtered by name prefix, case-insensitive")
+    @GetMapping
+    public ResponseEntity<List<AuthorResponse>> getAuthors(@RequestParam(required = false) String namePrefix) {
+        log.debug("Get authors with name prefix {}", namePrefix);
+        return ResponseEntity.ok()
+                .cacheControl(bookProperties.getHttpCache().toCacheControl())
+                .body(authorService.getAuthors(namePrefix).stream().map(AuthorResponse::from).toList());
+    }
+
+    @Operation(summary = "Get an author, by name, case-insensitive, with the number of books and the price range")
+    @GetMapping("/{authorName}")
+    public ResponseEntity<AuthorResponse> getAuthor(@PathVariable String authorName) {
+        log.debug("Get author with name {}", authorName);
+        return ResponseEntity.ok()
+                .cacheControl(bookProperties.getHttpCache().toCacheControl())
+                .body(AuthorResponse.from(authorService.validateAndGetAuthor(authorName)));
+    }
+
+    @Operation(
+            summary = "Rebuild all the authors from the books",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping("/rebuild")
+    public void rebuildAuthors(Principal principal) {
+        log.info("Post request made by {} to rebuild the authors", principal.getName());
+        long authorCount = authorService.rebuildAuthors();
+        log.info("Authors rebuilt, {} authors", authorCount);
+    }
+}
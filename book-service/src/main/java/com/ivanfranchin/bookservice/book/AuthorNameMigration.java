@@ -0,0 +1,39 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the normalized author name of the books saved before it was stored, at startup. It finds nothing to set once
+ * they all have it. It runs after {@link BookPriceMigration} and before {@link AuthorBackfill}, and rebuilds the authors
+ * itself when it changes any book, as those books were grouped apart from the others of their author.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Conditional(NotReactiveWebApplicationCondition.class)
+@ConditionalOnProperty(prefix = "book.author-name-migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuthorNameMigration implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+    private final AuthorService authorService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long normalizedCount = bookRepository.normalizeAuthorNames();
+        if (normalizedCount == 0) {
+            return;
+        }
+        long authorCount = authorService.rebuildAuthors();
+        log.info("Author names of {} books normalized, {} authors rebuilt", normalizedCount, authorCount);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregations that derive the authors from the books, and the updates that adjust them by the books written, shared by
+ * the blocking and the reactive author repositories.
+ */
+final class AuthorQueries {
+
+    private AuthorQueries() {
+    }
+
+    // Served by the normalizedAuthorName_title index, so only the books of these authors are read
+    static TypedAggregation<Book> authorsOf(Collection<String> normalizedAuthorNames) {
+        return Aggregation.newAggregation(Book.class,
+                Aggregation.match(Criteria.where(NORMALIZED_AUTHOR_NAME_FIELD).in(normalizedAuthorNames)),
+                groupByAuthor());
+    }
+
+    /**
+     * Groups every book by author and replaces the authors collection with the result. $out writes to a temporary
+     * collection and renames it at the end, so readers see either the old authors or the new ones, and the authors
+     * refreshed while it runs are overwritten by it. The groups of a large collection don't fit in the 100MB memory
+     * limit of $group, hence allowDiskUse. Books without an author name, e.g. written straight to MongoDB, are left out,
+     * as they would be grouped into an author without id.
+     */
+    static TypedAggregation<Book> allAuthors() {
+        return Aggregation.newAggregation(Book.class,
+                Aggregation.match(Criteria.where(NORMALIZED_AUTHOR_NAME_FIELD).ne(null)),
+                groupByAuthor(),
+                Aggregation.out(AUTHORS_COLLECTION))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).skipOutput().build());
+    }
+
+    // The smallest spelling is kept as the author name, so that both aggregations pick the same one
+    private static GroupOperation groupByAuthor() {
+        return Aggregation.group(NORMALIZED_AUTHOR_NAME_FIELD)
+                .min(AUTHOR_NAME_FIELD).as(AUTHOR_NAME_FIELD)
+                .count().as(BOOK_COUNT_FIELD)
+                .min(PRICE_FIELD).as(MIN_PRICE_FIELD)
+                .max(PRICE_FIELD).as(MAX_PRICE_FIELD);
+    }
+
+    /**
+     * The update of each author of the books, by normalized author name, that adds them to its count and price range,
+     * and to its spellings. Applied as upserts, they also create the authors that don't exist yet.
+     */
+    static Map<String, Update> additionsOf(Collection<Book> books) {
+        Map<String, Update> additions = new HashMap<>();
+        books.stream().collect(Collectors.groupingBy(Book::getNormalizedAuthorName)).forEach((id, authorBooks) ->
+                additions.put(id, new Update()
+                        .min(AUTHOR_NAME_FIELD, authorBooks.stream().map(Book::getAuthorName).min(Comparator.naturalOrder()).orElseThrow())
+                        .inc(BOOK_COUNT_FIELD, authorBooks.size())
+                        .min(MIN_PRICE_FIELD, authorBooks.stream().map(Book::getPrice).min(Comparator.naturalOrder()).orElseThrow())
+                        .max(MAX_PRICE_FIELD, authorBooks.stream().map(Book::getPrice).max(Comparator.naturalOrder()).orElseThrow())
+                        .inc(REVISION_FIELD, 1)));
+        return additions;
+    }
+
+    /**
+     * Matches the author only if the previous price of a book is not the only one at the end of its price range that the
+     * new price moves away from, e.g. a book whose price goes up was not the only cheapest one. The range then doesn't
+     * depend on the previous price, and is adjusted by {@link #priceChange}. Otherwise, the author has to be recomputed.
+     */
+    static Query byIdKeepingPriceRange(String id, BigDecimal previousPrice, BigDecimal price) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        return Query.query(price.compareTo(previousPrice) > 0
+                ? criteria.and(MIN_PRICE_FIELD).lt(previousPrice)
+                : criteria.and(MAX_PRICE_FIELD).gt(previousPrice));
+    }
+
+    static Update priceChange(BigDecimal price) {
+        return new Update().min(MIN_PRICE_FIELD, price).max(MAX_PRICE_FIELD, price).inc(REVISION_FIELD, 1);
+    }
+
+    // Only the ids and the revisions of the authors, read before they are recomputed
+    static Query revisionsOf(Collection<String> ids) {
+        Query query = byIds(ids);
+        query.fields().include(REVISION_FIELD);
+        return query;
+    }
+
+    // The revision is missing from the authors that were never written since they were created by a rebuild
+    static Query byIdAndRevision(String id, Long revision) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        return Query.query(revision == null ? criteria.and(REVISION_FIELD).exists(false) : criteria.and(REVISION_FIELD).is(revision));
+    }
+
+    static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    static Query byIds(Collection<String> ids) {
+        return Query.query(Criteria.where("_id").in(ids));
+    }
+
+    private static final String AUTHORS_COLLECTION = "authors";
+    private static final String NORMALIZED_AUTHOR_NAME_FIELD = "normalizedAuthorName";
+    private static final String AUTHOR_NAME_FIELD = "authorName";
+    private static final String PRICE_FIELD = "price";
+    private static final String BOOK_COUNT_FIELD = "bookCount";
+    private static final String MIN_PRICE_FIELD = "minPrice";
+    private static final String MAX_PRICE_FIELD = "maxPrice";
+    private static final String REVISION_FIELD = "revision";
+}
@@ -0,0 +1,78 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The writes that store the authors recomputed by a refresh, shared by the blocking and the reactive author
+ * repositories. Each one only applies if the author still has the revision it had before its books were aggregated, so
+ * that an aggregate that may be older than a concurrent write, by another refresh or by an adjustment, is never stored
+ * over it. When any of them doesn't apply, the refresh is run again.
+ */
+final class AuthorRefresh {
+
+    private final List<Replacement> replacements = new ArrayList<>();
+    private final List<Query> removals = new ArrayList<>();
+
+    /**
+     * @param storedAuthors   the revisions of the authors refreshed that exist, read before the aggregation
+     * @param computedAuthors the authors aggregated from their books, the ones that have no book left are missing
+     */
+    AuthorRefresh(Collection<String> normalizedAuthorNames, List<Author> storedAuthors, List<Author> computedAuthors) {
+        Map<String, Long> revisions = new HashMap<>();
+        storedAuthors.forEach(author -> revisions.put(author.getId(), author.getRevision()));
+        Set<String> computedIds = new HashSet<>();
+        for (Author author : computedAuthors) {
+            boolean exists = revisions.containsKey(author.getId());
+            Long revision = revisions.get(author.getId());
+            author.setRevision(revision == null ? 1 : revision + 1);
+            // An author that didn't exist is inserted, unless it was created meanwhile, which fails on its id
+            replacements.add(new Replacement(AuthorQueries.byIdAndRevision(author.getId(), revision), author, !exists));
+            computedIds.add(author.getId());
+        }
+        for (String id : normalizedAuthorNames) {
+            if (!computedIds.contains(id) && revisions.containsKey(id)) {
+                removals.add(AuthorQueries.byIdAndRevision(id, revisions.get(id)));
+            }
+        }
+    }
+
+    List<Replacement> replacements() {
+        return replacements;
+    }
+
+    List<Query> removals() {
+        return removals;
+    }
+
+    boolean isEmpty() {
+        return replacements.isEmpty() && removals.isEmpty();
+    }
+
+    boolean isAppliedBy(BulkWriteResult bulkWriteResult) {
+        int applied = bulkWriteResult.getMatchedCount() + bulkWriteResult.getUpserts().size() + bulkWriteResult.getDeletedCount();
+        return applied == replacements.size() + removals.size();
+    }
+
+    // An author inserted by the refresh that was created meanwhile
+    static boolean isConflict(BulkOperationException e) {
+        return e.getErrors().stream()
+                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+    }
+
+    record Replacement(Query query, Author author, boolean upsert) {
+    }
+
+    static final int MAX_ATTEMPTS = 3;
+}
@@ -0,0 +1,22 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuthorRepository extends MongoRepository<Author, String>, AuthorRepositoryCustom {
+
+    List<Author> findAllByOrderByIdAsc(Limit limit);
+
+    // The id is the normalized author name, so a prefix of it is a range on the _id index
+    @Query(value = "{ '_id': { $gte: ?0, $lt: ?1 } }", sort = "{ '_id': 1 }")
+    List<Author> findByIdPrefix(String prefix, String prefixUpperBound, Limit limit);
+
+    // A prefix with no upper bound, see BookQueries.prefixUpperBound
+    List<Author> findByIdGreaterThanEqualOrderByIdAsc(String id, Limit limit);
+}
@@ -0,0 +1,34 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+public interface AuthorRepositoryCustom {
+
+    /**
+     * Adds the books to the count and the price range of their authors, creating the ones that don't exist yet, with a
+     * single bulkWrite of upserts, without reading any other book.
+     */
+    void addBooks(Collection<Book> books);
+
+    /**
+     * Moves the price range of the author of a book whose price changed, without reading its books. Returns
+     * {@code false}, leaving the author as it is, when the range may depend on the previous price, in which case the
+     * author has to be refreshed.
+     */
+    boolean changePrice(String normalizedAuthorName, BigDecimal previousPrice, BigDecimal price);
+
+    /**
+     * Recomputes the authors informed from their books, in a single aggregation, and writes them with a single
+     * bulkWrite, removing the ones that have no book anymore. The writes are guarded by the revisions of the authors,
+     * and the refresh is run again when any of them was written meanwhile.
+     */
+    void refresh(Collection<String> normalizedAuthorNames);
+
+    /**
+     * Replaces all the authors with the ones computed from the whole books collection.
+     */
+    void rebuild();
+}
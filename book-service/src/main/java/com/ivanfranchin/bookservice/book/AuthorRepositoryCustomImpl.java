@@ -0,0 +1,78 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class AuthorRepositoryCustomImpl implements AuthorRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void addBooks(Collection<Book> books) {
+        Map<String, Update> additions = AuthorQueries.additionsOf(books);
+        if (additions.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Author.class);
+        additions.forEach((id, update) -> bulkOperations.upsert(AuthorQueries.byId(id), update));
+        bulkOperations.execute();
+    }
+
+    @Override
+    public boolean changePrice(String normalizedAuthorName, BigDecimal previousPrice, BigDecimal price) {
+        return mongoTemplate.updateFirst(AuthorQueries.byIdKeepingPriceRange(normalizedAuthorName, previousPrice, price),
+                AuthorQueries.priceChange(price), Author.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void refresh(Collection<String> normalizedAuthorNames) {
+        for (int attempt = 1; attempt <= AuthorRefresh.MAX_ATTEMPTS; attempt++) {
+            List<Author> storedAuthors = mongoTemplate.find(AuthorQueries.revisionsOf(normalizedAuthorNames), Author.class);
+            List<Author> authors = mongoTemplate.aggregate(AuthorQueries.authorsOf(normalizedAuthorNames), Author.class).getMappedResults();
+            if (write(new AuthorRefresh(normalizedAuthorNames, storedAuthors, authors))) {
+                return;
+            }
+        }
+        throw new OptimisticLockingFailureException("Authors %s kept being written while they were refreshed".formatted(normalizedAuthorNames));
+    }
+
+    @Override
+    public void rebuild() {
+        mongoTemplate.aggregate(AuthorQueries.allAuthors(), Author.class);
+    }
+
+    private boolean write(AuthorRefresh authorRefresh) {
+        if (authorRefresh.isEmpty()) {
+            return true;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Author.class);
+        for (AuthorRefresh.Replacement replacement : authorRefresh.replacements()) {
+            FindAndReplaceOptions options = replacement.upsert() ? FindAndReplaceOptions.options().upsert() : FindAndReplaceOptions.options();
+            bulkOperations.replaceOne(replacement.query(), replacement.author(), options);
+        }
+        if (!authorRefresh.removals().isEmpty()) {
+            bulkOperations.remove(authorRefresh.removals());
+        }
+        try {
+            return authorRefresh.isAppliedBy(bulkOperations.execute());
+        } catch (BulkOperationException e) {
+            if (AuthorRefresh.isConflict(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.exception.AuthorNotFoundException;
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the authors read model and keeps it up to date. The book services adjust the authors of the books they write,
+ * right after the write, and the whole model can be rebuilt from the books, which is how it is first filled. The books
+ * added and the price changes that don't move an end of a price range away are applied to the authors as they are,
+ * only the authors that lose a book, or an end of their range, are recomputed from all their books.
+ */
+@Observed(name = "book.service")
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@Conditional(NotReactiveWebApplicationCondition.class)
+public class AuthorService {
+
+    private final AuthorRepository authorRepository;
+    private final BookProperties bookProperties;
+
+    public List<Author> getAuthors(String namePrefix) {
+        Limit limit = BookQueries.unpagedLimit(bookProperties);
+        if (!StringUtils.hasText(namePrefix)) {
+            return authorRepository.findAllByOrderByIdAsc(limit);
+        }
+        String prefix = Book.normalizeAuthorName(namePrefix);
+        String prefixUpperBound = BookQueries.prefixUpperBound(prefix);
+        return prefixUpperBound == null
+                ? authorRepository.findByIdGreaterThanEqualOrderByIdAsc(prefix, limit)
+                : authorRepository.findByIdPrefix(prefix, prefixUpperBound, limit);
+    }
+
+    public Author validateAndGetAuthor(String authorName) {
+        return authorRepository.findById(Book.normalizeAuthorName(authorName))
+                .orElseThrow(() -> new AuthorNotFoundException(authorName));
+    }
+
+    /**
+     * Adds the books to the count and the price range of their authors, without reading the other books.
+     */
+    public void addBooks(Collection<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        update(books.stream().map(Book::getNormalizedAuthorName).collect(Collectors.toSet()),
+                () -> authorRepository.addBooks(books));
+    }
+
+    /**
+     * When the book changes author, or the spelling of its author, the author it had is recomputed, as it may have been
+     * the only book at an end of the range or with that spelling, and the book is added to the author it has now. When
+     * only its price changes, the range of its author is adjusted, unless the previous price was at the end the price
+     * moves away from.
+     */
+    public void updateBook(Book previousBook, Book book) {
+        if (!Objects.equals(previousBook.getAuthorName(), book.getAuthorName())) {
+            refreshAuthors(Arrays.asList(previousBook.getNormalizedAuthorName()));
+            if (!Objects.equals(previousBook.getNormalizedAuthorName(), book.getNormalizedAuthorName())) {
+                addBooks(List.of(book));
+            }
+        } else if (previousBook.getPrice().compareTo(book.getPrice()) != 0) {
+            String authorName = book.getNormalizedAuthorName();
+            update(Set.of(authorName), () -> {
+                if (!authorRepository.changePrice(authorName, previousBook.getPrice(), book.getPrice())) {
+                    authorRepository.refresh(Set.of(authorName));
+                }
+            });
+        }
+    }
+
+    /**
+     * The count and the price range can't be adjusted by the books removed, as removing the cheapest book needs the
+     * next cheapest one, so the authors informed are recomputed from all their books.
+     */
+    public void refreshAuthors(Collection<String> normalizedAuthorNames) {
+        Set<String> authorNames = normalizedAuthorNames.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (authorNames.isEmpty()) {
+            return;
+        }
+        update(authorNames, () -> authorRepository.refresh(authorNames));
+    }
+
+    public long rebuildAuthors() {
+        authorRepository.rebuild();
+        return authorRepository.count();
+    }
+
+    public boolean hasAuthors() {
+        return authorRepository.count() > 0;
+    }
+
+    // The books are already written when the authors are updated, so a failure is only logged, and the authors stay
+    // stale until they are refreshed again or rebuilt
+    private void update(Set<String> authorNames, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            log.warn("Authors {} could not be updated", authorNames, e);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.BookRepositoryCustom.BulkResult;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse.Status;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookBatchRequest;
+import com.ivanfranchin.bookservice.book.exception.BookBatchTooLargeException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.ivanfranchin.bookservice.config.CacheConfig.BOOKS_CACHE;
+
+/**
+ * Creates, updates and deletes books in batches. Every item is validated on its own, the valid ones are written with a
+ * single MongoDB bulkWrite, and a result is returned for each item, in the same order as the request. In ordered mode,
+ * the items after the first one that fails are skipped. The authors of the books written are adjusted once per batch,
+ * and only the books written are evicted from the cache.
+ */
+@Slf4j
+@Observed(name = "book.service")
+@RequiredArgsConstructor
+@Service
+@Conditional(NotReactiveWebApplicationCondition.class)
+public class BookBatchService {
+
+    private final BookRepository bookRepository;
+    private final BookProperties bookProperties;
+    private final Validator validator;
+    private final AuthorService authorService;
+    private final BookCatalogueSnapshot bookCatalogueSnapshot;
+    private final CacheManager cacheManager;
+
+    public List<BookBatchItemResponse> createBooks(List<CreateBookRequest> createBookRequests, boolean ordered) {
+        validateBatchSize(createBookRequests.size());
+
+        BatchWrite batchWrite = new BatchWrite(createBookRequests.size(), ordered);
+        List<Book> books = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < createBookRequests.size() && !batchWrite.isStopped(); i++) {
+            CreateBookRequest createBookRequest = createBookRequests.get(i);
+            String violations = validate(createBookRequest);
+            if (violations != null) {
+                batchWrite.reject(i, null, Status.INVALID, violations);
+                continue;
+            }
+            // Ids are generated here, so that they can be returned without reading the books back. Bulk inserts don't
+            // go through save, so the version and the modification time are initialized here as well
+            Book book = Book.from(createBookRequest);
+            book.setId(new ObjectId().toHexString());
+            book.setVersion(0L);
+            book.setUpdatedAt(now);
+            books.add(book);
+            batchWrite.accept(i, book.getId());
+        }
+        Map<Integer, String> errors = bookRepository.bulkInsert(books, ordered);
+        bookCatalogueSnapshot.invalidate();
+        // Only the books inserted are added to their authors, the position of a book is the one it was accepted at
+        authorService.addBooks(IntStream.range(0, books.size())
+                .filter(position -> batchWrite.isWritten(position, errors))
+                .mapToObj(books::get)
+                .toList());
+        return batchWrite.complete(errors, Status.CREATED, Set.of());
+    }
+
+    public List<BookBatchItemResponse> updateBooks(List<UpdateBookBatchRequest> updateBookBatchRequests, boolean ordered) {
+        validateBatchSize(updateBookBatchRequests.size());
+
+        Set<String> existingIds = bookRepository.findExistingIds(updateBookBatchRequests.stream()
+                .filter(Objects::nonNull).map(UpdateBookBatchRequest::id).filter(StringUtils::hasText).toList());
+
+        BatchWrite batchWrite = new BatchWrite(updateBookBatchRequests.size(), ordered);
+        List<String> ids = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        for (int i = 0; i < updateBookBatchRequests.size() && !batchWrite.isStopped(); i++) {
+            UpdateBookBatchRequest updateBookBatchRequest = updateBookBatchRequests.get(i);
+            String id = updateBookBatchRequest == null ? null : updateBookBatchRequest.id();
+            String violations = validate(updateBookBatchRequest);
+            Update update = violations == null ? Book.toUpdate(updateBookBatchRequest.toUpdateBookRequest()) : null;
+            if (violations != null) {
+                batchWrite.reject(i, id, Status.INVALID, violations);
+            } else if (update.getUpdateObject().isEmpty()) {
+                batchWrite.reject(i, id, Status.INVALID, "no field to update");
+            } else if (!existingIds.contains(id)) {
+                batchWrite.reject(i, id, Status.NOT_FOUND, null);
+            } else {
+                ids.add(id);
+                updates.add(update);
+                batchWrite.accept(i, id);
+            }
+        }
+        // The authors the books had before are only read when some of them change author
+        Set<String> authorNames = new HashSet<>();
+        if (updates.stream().anyMatch(BookQueries::changesAuthor)) {
+            authorNames.addAll(bookRepository.findNormalizedAuthorNames(ids));
+        }
+        BulkResult bulkResult = bookRepository.bulkUpdate(ids, updates, ordered);
+        evictBooks(ids);
+        bookCatalogueSnapshot.invalidate();
+        if (updates.stream().anyMatch(BookQueries::changesAuthorSummary)) {
+            authorNames.addAll(bookRepository.findNormalizedAuthorNames(ids));
+            authorService.refreshAuthors(authorNames);
+        }
+        // Books removed between the existence check and the bulkWrite are not matched by their update. The count tells
+        // whether that happened, and only then are the books that are gone looked up, to report them as not found
+        Set<String> removedIds = Set.of();
+        if (bulkResult.matchedCount() < batchWrite.succeeded(bulkResult.errors())) {
+            Set<String> remainingIds = bookRepository.findExistingIds(ids);
+            removedIds = ids.stream().filter(id -> !remainingIds.contains(id)).collect(Collectors.toSet());
+        }
+        return batchWrite.complete(bulkResult.errors(), Status.UPDATED, removedIds);
+    }
+
+    public List<BookBatchItemResponse> deleteBooks(List<String> bookIds, boolean ordered) {
+        validateBatchSize(bookIds.size());
+
+        Set<String> existingIds = bookRepository.findExistingIds(bookIds.stream().filter(StringUtils::hasText).toList());
+
+        BatchWrite batchWrite = new BatchWrite(bookIds.size(), ordered);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < bookIds.size() && !batchWrite.isStopped(); i++) {
+            String id = bookIds.get(i);
+            if (!StringUtils.hasText(id)) {
+                batchWrite.reject(i, id, Status.INVALID, "id: must not be blank");
+            } else if (!existingIds.contains(id)) {
+                batchWrite.reject(i, id, Status.NOT_FOUND, null);
+            } else {
+                ids.add(id);
+                batchWrite.accept(i, id);
+            }
+        }
+        Set<String> authorNames = bookRepository.findNormalizedAuthorNames(ids);
+        BulkResult bulkResult = bookRepository.bulkRemove(ids, ordered);
+        evictBooks(ids);
+        bookCatalogueSnapshot.invalidate();
+        authorService.refreshAuthors(authorNames);
+        // Which of the books were removed by someone else in the meantime can't be told from the count, as none of
+        // them is left, so they are still reported as deleted, which is the state they are in
+        int expectedCount = batchWrite.succeeded(bulkResult.errors());
+        if (bulkResult.matchedCount() < expectedCount) {
+            log.info("{} of the {} books of the batch were deleted by another request meanwhile",
+                    expectedCount - bulkResult.matchedCount(), expectedCount);
+        }
+        return batchWrite.complete(bulkResult.errors(), Status.DELETED, Set.of());
+    }
+
+    private void validateBatchSize(int size) {
+        int maxSize = bookProperties.getBatch().getMaxSize();
+        if (size > maxSize) {
+            throw new BookBatchTooLargeException(size, maxSize);
+        }
+    }
+
+    private void evictBooks(List<String> ids) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(BOOKS_CACHE));
+        ids.forEach(cache::evict);
+    }
+
+    private String validate(Object request) {
+        if (request == null) {
+            return "must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Keeps track of the result of each item of a batch. Items are either rejected before the bulkWrite, or accepted,
+     * in which case their result depends on the errors returned by it.
+     */
+    private static class BatchWrite {
+
+        private final BookBatchItemResponse[] results;
+        private final boolean ordered;
+        private final List<Integer> acceptedIndexes = new ArrayList<>();
+        private final List<String> acceptedIds = new ArrayList<>();
+        private boolean stopped;
+
+        BatchWrite(int size, boolean ordered) {
+            this.results = new BookBatchItemResponse[size];
+            this.ordered = ordered;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        void reject(int index, String id, Status status, String error) {
+            results[index] = new BookBatchItemResponse(index, id, status, error);
+            stopped = ordered;
+        }
+
+        void accept(int index, String id) {
+            acceptedIndexes.add(index);
+            acceptedIds.add(id);
+        }
+
+        // How many of the accepted items were written
+        int succeeded(Map<Integer, String> errors) {
+            return (int) IntStream.range(0, acceptedIndexes.size()).filter(position -> isWritten(position, errors)).count();
+        }
+
+        // Whether the accepted item at this position was written, that is, neither failed nor skipped after a failure
+        boolean isWritten(int position, Map<Integer, String> errors) {
+            return !errors.containsKey(position) && !(ordered && position > firstError(errors));
+        }
+
+        List<BookBatchItemResponse> complete(Map<Integer, String> errors, Status successStatus, Set<String> removedIds) {
+            int firstError = firstError(errors);
+            for (int position = 0; position < acceptedIndexes.size(); position++) {
+                Status status = successStatus;
+                String error = errors.get(position);
+                if (error != null) {
+                    status = Status.FAILED;
+                } else if (ordered && position > firstError) {
+                    status = Status.SKIPPED;
+                } else if (removedIds.contains(acceptedIds.get(position))) {
+                    status = Status.NOT_FOUND;
+                }
+                int index = acceptedIndexes.get(position);
+                results[index] = new BookBatchItemResponse(index, acceptedIds.get(position), status, error);
+            }
+            for (int index = 0; index < results.length; index++) {
+                if (results[index] == null) {
+                    results[index] = new BookBatchItemResponse(index, null, Status.SKIPPED, null);
+                }
+            }
+            return Arrays.asList(results);
+        }
+
+        private static int firstError(Map<Integer, String> errors) {
+            return errors.keySet().stream().mapToInt(Integer::intValue).min().orElse(Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.ivanfranchin.bookservice.config.CacheConfig.BOOKS_CACHE;
+
+/**
+ * Keeps the books cache of this replica coherent with the writes made by the others. It follows the change stream of
+ * the books collection and evicts every book updated, replaced or deleted, so the next read loads it again. Any change,
+ * inserts included, also invalidates the {@link BookCatalogueSnapshot}. Change streams need MongoDB to run as a replica
+ * set, so it is only enabled by the cache-sync profile.
+ * <p>
+ * The stream is opened before the web server starts, so no write is missed while the cache warms up. Its resume token
+ * is only kept in memory: after a failure, the stream resumes from it, replaying the changes made in the meantime, and
+ * after a restart, it starts from now, the cache being empty anyway. When it can't resume, because the token has
+ * fallen off the oplog, or the collection is dropped, the whole cache is cleared, as the books changed in the meantime
+ * are not known anymore. A read that loaded a book before a write and caches it after the eviction can still be stale,
+ * until the entry expires.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "book.cache-sync", name = "enabled", havingValue = "true")
+public class BookCacheSynchronizer implements SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final BookProperties bookProperties;
+    private final BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> initialCursor;
+    private volatile BsonDocument resumeToken;
+
+    @Override
+    public void start() {
+        running = true;
+        initialCursor = openCursorOrNull();
+        thread = Thread.ofPlatform().name("book-cache-sync").daemon().unstarted(this::run);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            thread.join(bookProperties.getCacheSync().getMaxAwaitTime().multipliedBy(2).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Started before the web server (DEFAULT_PHASE - 2048), and so stopped after it
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = initialCursor;
+        initialCursor = null;
+        while (isActive()) {
+            try {
+                if (cursor == null) {
+                    cursor = openCursor();
+                }
+                follow(cursor);
+            } catch (RuntimeException e) {
+                if (!isActive()) {
+                    break;
+                }
+                handleFailure(e);
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                    cursor = null;
+                }
+            }
+        }
+    }
+
+    private void follow(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        while (isActive()) {
+            ChangeStreamDocument<Document> event = cursor.tryNext();
+            if (event != null) {
+                apply(event);
+            }
+            // The token advances without events too, with the post-batch resume token, so the one kept never gets too
+            // old. The stream must be reopened after an invalidate event, from its token
+            BsonDocument currentResumeToken = cursor.getResumeToken();
+            if (currentResumeToken != null) {
+                resumeToken = currentResumeToken;
+            }
+            if (event != null && event.getOperationType() == OperationType.INVALIDATE) {
+                return;
+            }
+        }
+    }
+
+    // A thread that outlived stop() must not go on when the synchronizer is started again with a new one
+    private boolean isActive() {
+        return running && Thread.currentThread() == thread;
+    }
+
+    private void apply(ChangeStreamDocument<Document> event) {
+        Cache cache = getCache();
+        switch (event.getOperationType()) {
+            case INSERT -> bookCatalogueSnapshot.invalidate();
+            case UPDATE, REPLACE, DELETE -> {
+                cache.evict(toId(Objects.requireNonNull(event.getDocumentKey()).get(ID_FIELD)));
+                bookCatalogueSnapshot.invalidate();
+            }
+            case INVALIDATE -> {
+                // The collection was dropped or renamed, the stream is reopened after this event
+                log.info("Books change stream invalidated, the books cache is cleared");
+                cache.clear();
+                bookCatalogueSnapshot.invalidate();
+            }
+            default -> {
+            }
+        }
+    }
+
+    // A stream resumed from the last token replays the changes made while it was down, so the cache only needs to be
+    // cleared when it can't be resumed
+    private void handleFailure(RuntimeException e) {
+        if (isChangeStreamUnsupported(e)) {
+            log.warn("Books change stream is not supported, MongoDB must run as a replica set. The books cache is only evicted for the writes of this replica", e);
+            running = false;
+            return;
+        }
+        if (isResumeTokenLost(e)) {
+            log.warn("Books change stream can't be resumed from its last token, it is restarted from now and the books cache is cleared", e);
+            resumeToken = null;
+            getCache().clear();
+            bookCatalogueSnapshot.invalidate();
+        } else {
+            log.warn("Books change stream failed, it is resumed in {}", bookProperties.getCacheSync().getRetryDelay(), e);
+        }
+        try {
+            Thread.sleep(bookProperties.getCacheSync().getRetryDelay());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    // When it fails, the cursor is opened again, and the failure handled, by the background thread
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursorOrNull() {
+        try {
+            return openCursor();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Only the operation and the id of the book are needed, so the update description is not sent
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        List<String> operationTypes = List.of("insert", "update", "replace", "delete", "invalidate");
+        ChangeStreamIterable<Document> changeStream = getBooksCollection()
+                .watch(List.of(
+                        Aggregates.match(Filters.in("operationType", operationTypes)),
+                        Aggregates.project(Projections.include("operationType", "documentKey"))))
+                .maxAwaitTime(bookProperties.getCacheSync().getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        BsonDocument lastResumeToken = resumeToken;
+        if (lastResumeToken != null) {
+            // Unlike resumeAfter, startAfter also resumes after an invalidate event
+            changeStream = changeStream.startAfter(lastResumeToken);
+        }
+        return changeStream.cursor();
+    }
+
+    private MongoCollection<Document> getBooksCollection() {
+        return mongoTemplate.getCollection(BOOKS_COLLECTION);
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(BOOKS_CACHE));
+    }
+
+    // Books are cached by their id as a string, the hex of the ObjectId
+    private static String toId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private static boolean isResumeTokenLost(RuntimeException e) {
+        return e instanceof MongoException mongoException
+                && (mongoException.getCode() == CHANGE_STREAM_HISTORY_LOST || mongoException.getCode() == CHANGE_STREAM_FATAL_ERROR);
+    }
+
+    private static boolean isChangeStreamUnsupported(RuntimeException e) {
+        return e instanceof MongoCommandException mongoCommandException && mongoCommandException.getCode() == CHANGE_STREAM_REPLICA_SET_REQUIRED;
+    }
+
+    private static final String BOOKS_COLLECTION = "books";
+    private static final String ID_FIELD = "_id";
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_REPLICA_SET_REQUIRED = 40573;
+}
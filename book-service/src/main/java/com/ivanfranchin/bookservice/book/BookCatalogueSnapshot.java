@@ -0,0 +1,162 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import com.ivanfranchin.bookservice.book.exception.NotAcceptableBookMediaTypeException;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The unfiltered list of books, as returned by {@code GET /api/books}, kept in memory already serialized to JSON and
+ * gzipped, so that repeated calls are answered with a copy of its bytes, without querying MongoDB nor serializing.
+ * <p>
+ * Every write invalidates it, and it is built again by the next call. A build that overlaps a write belongs to the
+ * generation before it, and is never served after the write. The list is capped by
+ * {@code book.pagination.max-unpaged-results}, which bounds the memory it takes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Conditional(NotReactiveWebApplicationCondition.class)
+public class BookCatalogueSnapshot {
+
+    private final BookRepository bookRepository;
+    private final BookProperties bookProperties;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Returns {@code null} when the snapshot is disabled, the caller then builds the list itself.
+     */
+    public Snapshot get() {
+        if (!bookProperties.getCatalogueSnapshot().isEnabled()) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        if (current != null && current.generation() == generation.get()) {
+            return current;
+        }
+        // A single build at a time, the calls that arrive meanwhile get its result instead of building their own
+        buildLock.lock();
+        try {
+            current = snapshot;
+            long currentGeneration = generation.get();
+            if (current == null || current.generation() != currentGeneration) {
+                current = build(currentGeneration);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot build(long generation) {
+        List<String> fields = BookQueries.responseFields(null);
+        List<BookView> books = bookRepository.findViews(BookQueries.books(bookProperties, BookFilter.none(), fields));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(books.stream().map(BookResponse::from).toList());
+            byte[] gzippedJson = gzip(json);
+            log.debug("Books catalogue snapshot built with {} books, {} bytes of JSON, {} gzipped", books.size(), json.length, gzippedJson.length);
+            return new Snapshot(generation, BookETag.of(books, fields), json, gzippedJson);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Compressed once per write, so the slowest and smallest level is worth it
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Whether the response negotiated for this Accept header is JSON, the only format the snapshot holds, next to the
+     * Smile and CBOR the message converters write. A wildcard or no header at all means JSON. A malformed header, or
+     * one that accepts none of them, is left to the message converters, which answer it with a 406.
+     */
+    static boolean acceptsJson(String accept) {
+        try {
+            return MediaType.APPLICATION_JSON.equals(BookMediaTypes.negotiate(accept, LIST_MEDIA_TYPES));
+        } catch (NotAcceptableBookMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether gzip is in the Accept-Encoding header, by name or through {@code *}, with a quality above zero.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] nameAndParameters = coding.trim().split(";");
+            String name = nameAndParameters[0].trim();
+            if (GZIP.equalsIgnoreCase(name)) {
+                gzipQuality = quality(nameAndParameters);
+            } else if (ANY.equals(name)) {
+                anyQuality = quality(nameAndParameters);
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+
+    private static double quality(String[] nameAndParameters) {
+        for (int i = 1; i < nameAndParameters.length; i++) {
+            String parameter = nameAndParameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    public record Snapshot(long generation, String eTag, byte[] json, byte[] gzippedJson) {
+    }
+
+    private static final String GZIP = "gzip";
+    private static final String ANY = "*";
+    private static final List<MediaType> LIST_MEDIA_TYPES =
+            List.of(MediaType.APPLICATION_JSON, BookMediaTypes.APPLICATION_SMILE, MediaType.APPLICATION_CBOR);
+}
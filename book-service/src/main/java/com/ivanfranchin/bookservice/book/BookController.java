@@ -1,33 +1,61 @@
 package com.ivanfranchin.bookservice.book;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse;
+import com.ivanfranchin.bookservice.book.dto.BookPageResponse;
 import com.ivanfranchin.bookservice.book.dto.BookResponse;
 import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookBatchRequest;
 import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.StringUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.ivanfranchin.bookservice.config.SwaggerConfig.BEARER_KEY_SECURITY_SCHEME;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Observed(name = "book.controller")
 @Slf4j
 @RequiredArgsConstructor
 @RestController
@@ -35,61 +63,196 @@ import static com.ivanfranchin.bookservice.config.SwaggerConfig.BEARER_KEY_SECUR
 public class BookController {
 
     private final BookService bookService;
+    private final BookBatchService bookBatchService;
+    private final BookProperties bookProperties;
+    private final ObjectMapper objectMapper;
+    private final BookCatalogueSnapshot bookCatalogueSnapshot;
 
-    @Operation(summary = "Get list of book. It can be filtered by author name")
+    @Operation(
+            summary = "Get list of book. It can be filtered by author name (prefix, case-insensitive), title (prefix, case-sensitive) and price range, sorted by id, authorName, title or price (-key for descending), and the fields returned can be limited, e.g. fields=title,price, the id being always returned. The ETag returned can be informed in If-None-Match to get a 304 when the list has not changed",
+            responses = @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookResponse.class)))))
     @GetMapping
-    public List<BookResponse> getBooks(@RequestParam(required = false) String authorName) {
-        boolean filterByAuthorName = StringUtils.hasText(authorName);
-        if (filterByAuthorName) {
-            log.info("Get books filtering by authorName equals to {}", authorName);
-        } else {
-            log.info("Get books");
+    public ResponseEntity<?> getBooks(@RequestParam(required = false) String authorName,
+                                      @RequestParam(required = false) String titlePrefix,
+                                      @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                      @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice,
+                                      @RequestParam(required = false) String sort,
+                                      @RequestParam(required = false) String fields,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        BookFilter bookFilter = new BookFilter(authorName, titlePrefix, minPrice, maxPrice, sort);
+        log.debug("Get books with {}", bookFilter);
+        if (bookFilter.equals(BookFilter.none()) && fields == null && BookCatalogueSnapshot.acceptsJson(accept)) {
+            BookCatalogueSnapshot.Snapshot snapshot = bookCatalogueSnapshot.get();
+            if (snapshot != null) {
+                return toResponseEntity(snapshot, acceptEncoding);
+            }
         }
-        List<Book> books = filterByAuthorName ? bookService.getBooksByAuthorName(authorName) : bookService.getBooks();
-        return books.stream().map(BookResponse::from).collect(Collectors.toList());
+        List<String> responseFields = BookQueries.responseFields(fields);
+        List<BookView> books = bookService.getBooks(bookFilter, responseFields);
+        return ResponseEntity.ok()
+                .eTag(BookETag.of(books, responseFields))
+                .cacheControl(bookProperties.getHttpCache().toCacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(books.stream().map(BookResponse::from).collect(Collectors.toList()));
+    }
+
+    @Operation(summary = "Get a page of books ordered by id. The next cursor returned must be informed to get the following page")
+    @GetMapping("/page")
+    public BookPageResponse getBooksPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) @Positive Integer size) {
+        log.debug("Get books page with cursor {} and size {}", cursor, size);
+        BookPage bookPage = bookService.getBooks(cursor, size);
+        return BookPageResponse.from(bookPage);
+    }
+
+    @Operation(summary = "Export all books, streamed straight from the database cursor, as newline-delimited JSON, or as a sequence of Smile or CBOR values, depending on Accept")
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, BookMediaTypes.APPLICATION_SMILE_VALUE, BookMediaTypes.APPLICATION_CBOR_SEQ_VALUE})
+    public WebAsyncTask<Void> exportBooks(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          HttpServletResponse response) {
+        BookExportFormat format = BookExportFormat.of(accept);
+        log.debug("Export books as {}", format);
+        response.setContentType(format.getMediaType().toString());
+        // Streamed on an async thread, with a timeout of its own, as a big collection takes longer than the default one
+        return new WebAsyncTask<>(bookProperties.getExport().getTimeout().toMillis(), () -> {
+            writeBooks(response.getOutputStream(), format);
+            return null;
+        });
     }
 
-    @Operation(summary = "Get book by id")
+    @Operation(summary = "Get book by id. The ETag returned can be informed in If-None-Match to get a 304 when the book has not changed")
     @GetMapping("/{id}")
-    public BookResponse getBookById(@PathVariable String id) {
-        log.info("Get books with id equals to {}", id);
+    public ResponseEntity<BookResponse> getBookById(@PathVariable String id) {
+        log.debug("Get books with id equals to {}", id);
         Book book = bookService.validateAndGetBookById(id);
-        return BookResponse.from(book);
+        return toResponseEntity(ResponseEntity.ok().cacheControl(bookProperties.getHttpCache().toCacheControl()).varyBy(HttpHeaders.ACCEPT), book);
     }
 
     @Operation(
             summary = "Create a book",
             security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
-    @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
-    public BookResponse createBook(@Valid @RequestBody CreateBookRequest createBookRequest, Principal principal) {
-        log.info("Post request made by {} to create a book {}", principal.getName(), createBookRequest);
+    public ResponseEntity<BookResponse> createBook(@Valid @RequestBody CreateBookRequest createBookRequest, Principal principal) {
+        log.info("Post request made by {} to create a book", principal.getName());
+        logPayload(CREATE_BOOK, createBookRequest);
         Book book = bookService.saveBook(Book.from(createBookRequest));
-        return BookResponse.from(book);
+        return toResponseEntity(ResponseEntity.status(HttpStatus.CREATED), book);
     }
 
     @Operation(
-            summary = "Update a book",
+            summary = "Update a book. If an ETag is informed in If-Match, the book is only updated if it has not changed since",
             security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
     @PatchMapping("/{id}")
-    public BookResponse updateBook(@PathVariable String id,
-                                   @Valid @RequestBody UpdateBookRequest updateBookRequest,
-                                   Principal principal) {
-        log.info("Patch request made by {} to update book with id {}. New values {}", principal.getName(), id, updateBookRequest);
-        Book book = bookService.validateAndGetBookById(id);
-        Book.updateFrom(updateBookRequest, book);
-        book = bookService.saveBook(book);
-        return BookResponse.from(book);
+    public ResponseEntity<BookResponse> updateBook(@PathVariable String id,
+                                                   @Valid @RequestBody UpdateBookRequest updateBookRequest,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   Principal principal) {
+        log.info("Patch request made by {} to update book with id {}", principal.getName(), id);
+        logPayload(UPDATE_BOOK, updateBookRequest);
+        Book book = bookService.updateBook(id, BookETag.expectedVersion(id, ifMatch), updateBookRequest);
+        return toResponseEntity(ResponseEntity.ok(), book);
     }
 
     @Operation(
-            summary = "Delete a book",
+            summary = "Delete a book. If an ETag is informed in If-Match, the book is only deleted if it has not changed since",
             security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
     @DeleteMapping("/{id}")
-    public BookResponse deleteBook(@PathVariable String id, Principal principal) {
+    public BookResponse deleteBook(@PathVariable String id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                   Principal principal) {
         log.info("Delete request made by {} to remove book with id {}", principal.getName(), id);
-        Book book = bookService.validateAndGetBookById(id);
-        bookService.deleteBook(book);
+        Book book = bookService.deleteBook(id, BookETag.expectedVersion(id, ifMatch));
         return BookResponse.from(book);
     }
+
+    @Operation(
+            summary = "Create books in batch. Each book is validated on its own, and a result is returned for each one",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @PostMapping("/batch")
+    public List<BookBatchItemResponse> createBooks(@RequestBody List<CreateBookRequest> createBookRequests,
+                                                   @RequestParam(defaultValue = "true") boolean ordered,
+                                                   Principal principal) {
+        log.info("Batch post request made by {} to create {} books (ordered: {})", principal.getName(), createBookRequests.size(), ordered);
+        logPayload(CREATE_BOOKS, createBookRequests);
+        return bookBatchService.createBooks(createBookRequests, ordered);
+    }
+
+    @Operation(
+            summary = "Update books in batch. Each book is validated on its own, and a result is returned for each one",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @PatchMapping("/batch")
+    public List<BookBatchItemResponse> updateBooks(@RequestBody List<UpdateBookBatchRequest> updateBookBatchRequests,
+                                                   @RequestParam(defaultValue = "true") boolean ordered,
+                                                   Principal principal) {
+        log.info("Batch patch request made by {} to update {} books (ordered: {})", principal.getName(), updateBookBatchRequests.size(), ordered);
+        logPayload(UPDATE_BOOKS, updateBookBatchRequests);
+        return bookBatchService.updateBooks(updateBookBatchRequests, ordered);
+    }
+
+    @Operation(
+            summary = "Delete books in batch. A result is returned for each id",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @DeleteMapping("/batch")
+    public List<BookBatchItemResponse> deleteBooks(@RequestBody List<String> ids,
+                                                   @RequestParam(defaultValue = "true") boolean ordered,
+                                                   Principal principal) {
+        log.info("Batch delete request made by {} to remove {} books (ordered: {})", principal.getName(), ids.size(), ordered);
+        return bookBatchService.deleteBooks(ids, ordered);
+    }
+
+    // The ETag and Last-Modified let a GET be answered with 304, and the ETag lets a write be made conditional on the
+    // version the client has seen
+    private ResponseEntity<BookResponse> toResponseEntity(ResponseEntity.BodyBuilder bodyBuilder, Book book) {
+        bodyBuilder.eTag(BookETag.of(book));
+        if (book.getUpdatedAt() != null) {
+            bodyBuilder.lastModified(book.getUpdatedAt());
+        }
+        return bodyBuilder.body(BookResponse.from(book));
+    }
+
+    // The snapshot bytes are copied as they are, already gzipped when the client accepts it, which also keeps Tomcat
+    // from compressing them again
+    private ResponseEntity<byte[]> toResponseEntity(BookCatalogueSnapshot.Snapshot snapshot, String acceptEncoding) {
+        ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.eTag())
+                .cacheControl(bookProperties.getHttpCache().toCacheControl())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (BookCatalogueSnapshot.acceptsGzip(acceptEncoding)) {
+            return bodyBuilder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(snapshot.gzippedJson());
+        }
+        return bodyBuilder.body(snapshot.json());
+    }
+
+    // Payloads are only logged, at DEBUG, for the share of requests set by book.payload-logging, so that turning DEBUG
+    // on for an endpoint doesn't write every request body
+    private void logPayload(String endpoint, Object payload) {
+        if (log.isDebugEnabled() && bookProperties.getPayloadLogging().isSampled(endpoint)) {
+            log.debug("Payload of {}: {}", endpoint, payload);
+        }
+    }
+
+    private void writeBooks(OutputStream outputStream, BookExportFormat format) throws IOException {
+        // Blocking writes to the servlet output stream throttle how fast the cursor is read. The generator buffers
+        // and flushes on its own, instead of after every book
+        ObjectWriter objectWriter = objectMapper.writerFor(BookResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<Book> books = bookService.streamBooks();
+             JsonGenerator jsonGenerator = format.getFactory(objectMapper).createGenerator(outputStream)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .setRootValueSeparator(null)) {
+            for (Book book : (Iterable<Book>) books::iterator) {
+                objectWriter.writeValue(jsonGenerator, BookResponse.from(book));
+                if (format.isNewlineDelimited()) {
+                    jsonGenerator.writeRaw('\n');
+                }
+            }
+        }
+    }
+
+    private static final String CREATE_BOOK = "create-book";
+    private static final String UPDATE_BOOK = "update-book";
+    private static final String CREATE_BOOKS = "create-books";
+    private static final String UPDATE_BOOKS = "update-books";
+    private static final String GZIP = "gzip";
 }
@@ -0,0 +1,55 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.exception.BookPreconditionFailedException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Maps the book version to a strong ETag, and the If-Match header back to the version expected by a write.
+ */
+final class BookETag {
+
+    private BookETag() {
+    }
+
+    static String of(Book book) {
+        return book.getVersion() == null ? null : "\"" + book.getVersion() + "\"";
+    }
+
+    // A list has no version of its own, so its ETag is a digest of the id and version of every book in it, in order.
+    // The fields returned are part of it too, as each set of fields is a different representation of the list. It is
+    // weak, since the same list is sent in several formats and, once compressed, with different bytes. Lists are never
+    // written, so If-Match never needs the strong comparison
+    static String of(List<BookView> books, List<String> fields) {
+        StringBuilder idsAndVersions = new StringBuilder(books.size() * 32).append(fields).append(';');
+        for (BookView book : books) {
+            idsAndVersions.append(book.id()).append(':').append(book.version()).append(';');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(idsAndVersions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Returns {@code null} when there is no If-Match header or it is {@code *}, meaning any version is accepted. A weak
+     * or malformed ETag can never match, as If-Match uses the strong comparison.
+     */
+    static Long expectedVersion(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new BookPreconditionFailedException(id);
+        }
+        try {
+            return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new BookPreconditionFailedException(id);
+        }
+    }
+
+    private static final String ANY = "*";
+}
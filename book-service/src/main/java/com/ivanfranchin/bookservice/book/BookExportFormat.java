@@ -0,0 +1,65 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ivanfranchin.bookservice.book.exception.NotAcceptableBookMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Formats of the book export. NDJSON ends each book with a newline, while Smile and CBOR values carry their own
+ * length, so the books are written back to back, and read back as a sequence, e.g. with Jackson's readValues.
+ */
+enum BookExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON),
+    SMILE(BookMediaTypes.APPLICATION_SMILE),
+    CBOR_SEQ(BookMediaTypes.APPLICATION_CBOR_SEQ);
+
+    private final MediaType mediaType;
+
+    BookExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    MediaType getMediaType() {
+        return mediaType;
+    }
+
+    boolean isNewlineDelimited() {
+        return this == NDJSON;
+    }
+
+    // The serializers of the application ObjectMapper write to a generator of any format, so only the factory changes
+    JsonFactory getFactory(ObjectMapper objectMapper) {
+        return switch (this) {
+            case NDJSON -> objectMapper.getFactory();
+            case SMILE -> SMILE_FACTORY;
+            case CBOR_SEQ -> CBOR_FACTORY;
+        };
+    }
+
+    /**
+     * The format Accept prefers, as Spring MVC's content negotiation would pick it, NDJSON being the one of a wildcard
+     * or of no header.
+     *
+     * @throws NotAcceptableBookMediaTypeException when the header is malformed or accepts none of the formats
+     */
+    static BookExportFormat of(String accept) {
+        MediaType mediaType = BookMediaTypes.negotiate(accept, MEDIA_TYPES);
+        for (BookExportFormat format : values()) {
+            if (format.mediaType.equals(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+    private static final List<MediaType> MEDIA_TYPES = Arrays.stream(values()).map(BookExportFormat::getMediaType).toList();
+}
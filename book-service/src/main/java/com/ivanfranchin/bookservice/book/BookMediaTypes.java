@@ -0,0 +1,73 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.exception.NotAcceptableBookMediaTypeException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Media types of the binary formats served next to JSON. Smile and CBOR single values and lists are written by the
+ * Jackson message converters Spring MVC registers when their data formats are on the classpath, and CBOR sequences
+ * (RFC 8742) are only written by the export.
+ */
+public final class BookMediaTypes {
+
+    private BookMediaTypes() {
+    }
+
+    /**
+     * The type, among the ones informed, that Spring MVC's content negotiation picks for this Accept header: accepted
+     * types are tried by quality, then by specificity, then in the order of the header, and the first type informed
+     * that one of them includes is picked, so a wildcard or no header at all picks the first type informed. A type
+     * whose most specific accepted type has a quality of 0 is never picked.
+     *
+     * @throws NotAcceptableBookMediaTypeException when the header is malformed or accepts none of the types
+     */
+    static MediaType negotiate(String accept, List<MediaType> producibleTypes) {
+        if (accept == null || accept.isBlank()) {
+            return producibleTypes.getFirst();
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(acceptedTypes);
+        } catch (InvalidMediaTypeException | InvalidMimeTypeException e) {
+            throw new NotAcceptableBookMediaTypeException(accept);
+        }
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType producibleType : producibleTypes) {
+                if (acceptedType.includes(producibleType) && !isRefused(producibleType, acceptedTypes)) {
+                    return producibleType;
+                }
+            }
+        }
+        throw new NotAcceptableBookMediaTypeException(accept);
+    }
+
+    // e.g. application/json with "*/*, application/json;q=0", the most specific accepted type decides (RFC 9110)
+    private static boolean isRefused(MediaType producibleType, List<MediaType> acceptedTypes) {
+        MediaType mostSpecific = null;
+        for (MediaType acceptedType : acceptedTypes) {
+            if (acceptedType.includes(producibleType) && (mostSpecific == null || wildcards(acceptedType) < wildcards(mostSpecific))) {
+                mostSpecific = acceptedType;
+            }
+        }
+        return mostSpecific != null && mostSpecific.getQualityValue() == 0;
+    }
+
+    private static int wildcards(MediaType mediaType) {
+        return (mediaType.isWildcardType() ? 1 : 0) + (mediaType.isWildcardSubtype() ? 1 : 0);
+    }
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+}
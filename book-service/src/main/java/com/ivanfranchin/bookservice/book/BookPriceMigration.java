@@ -0,0 +1,39 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts the prices saved as strings, before they were stored as Decimal128, at startup. It finds nothing to convert
+ * once they all are, the query being served by the price_title index. It runs before {@link AuthorBackfill}, and
+ * rebuilds the authors itself when it converts any price, as their price ranges were computed with the strings.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Conditional(NotReactiveWebApplicationCondition.class)
+@ConditionalOnProperty(prefix = "book.price-migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookPriceMigration implements ApplicationRunner {
+
+    private final BookRepository bookRepository;
+    private final AuthorService authorService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long convertedCount = bookRepository.convertStringPrices();
+        if (convertedCount == 0) {
+            return;
+        }
+        long authorCount = authorService.rebuildAuthors();
+        log.info("Prices of {} books converted from strings to Decimal128, {} authors rebuilt", convertedCount, authorCount);
+    }
+}
@@ -0,0 +1,172 @@
+package com.ivanfranchin.bookservice.book;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "book")
+public class BookProperties {
+
+    @Valid
+    private Pagination pagination = new Pagination();
+
+    @Valid
+    private AuthorSearch authorSearch = new AuthorSearch();
+
+    @Valid
+    private Batch batch = new Batch();
+
+    @Valid
+    private HttpCache httpCache = new HttpCache();
+
+    @Valid
+    private PayloadLogging payloadLogging = new PayloadLogging();
+
+    @Valid
+    private CacheSync cacheSync = new CacheSync();
+
+    @Valid
+    private Authors authors = new Authors();
+
+    @Valid
+    private CatalogueSnapshot catalogueSnapshot = new CatalogueSnapshot();
+
+    @Valid
+    private PriceMigration priceMigration = new PriceMigration();
+
+    @Valid
+    private AuthorNameMigration authorNameMigration = new AuthorNameMigration();
+
+    @Valid
+    private Export export = new Export();
+
+    @Data
+    public static class Pagination {
+
+        @Positive
+        private int defaultPageSize = 20;
+        @Positive
+        private int maxPageSize = 100;
+
+        // Upper bound for the endpoints that are not paginated, so that a single request never loads the whole collection
+        @Positive
+        private int maxUnpagedResults = 1000;
+    }
+
+    @Data
+    public static class AuthorSearch {
+
+        // PREFIX matches the beginning of the author name, case-insensitive. TEXT uses the text index on authorName
+        @NotNull
+        private Mode mode = Mode.PREFIX;
+
+        public enum Mode {
+            PREFIX, TEXT
+        }
+    }
+
+    @Data
+    public static class Batch {
+
+        @Positive
+        private int maxSize = 1000;
+    }
+
+    @Data
+    public static class HttpCache {
+
+        // How long clients and shared caches (CDN, reverse proxy) may reuse a book or a list of books without revalidating
+        @NotNull
+        private Duration maxAge = Duration.ofSeconds(60);
+
+        // How long after max-age a stale response may still be served, while it is revalidated in the background
+        @NotNull
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+
+        public CacheControl toCacheControl() {
+            return CacheControl.maxAge(maxAge).staleWhileRevalidate(staleWhileRevalidate).cachePublic();
+        }
+    }
+
+    @Data
+    public static class PayloadLogging {
+
+        // Fraction of the requests, from 0 to 1, whose payload is logged at DEBUG, by endpoint, e.g. create-book: 0.01
+        private Map<String, @DecimalMin("0") @DecimalMax("1") Double> sampleRates = new HashMap<>();
+
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double defaultSampleRate = 0;
+
+        public boolean isSampled(String endpoint) {
+            return ThreadLocalRandom.current().nextDouble() < sampleRates.getOrDefault(endpoint, defaultSampleRate);
+        }
+    }
+
+    @Data
+    public static class CacheSync {
+
+        // Evicts the books changed by any replica from the local cache, following the change stream of the collection.
+        // Change streams need MongoDB to run as a replica set
+        private boolean enabled = false;
+
+        // How long a getMore waits for changes before returning empty, which is also how long stopping may take
+        @NotNull
+        private Duration maxAwaitTime = Duration.ofSeconds(1);
+
+        // Wait before reopening the change stream after it fails
+        @NotNull
+        private Duration retryDelay = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Authors {
+
+        // Rebuilds the authors from the books at startup when there is none yet
+        private boolean backfillOnStartup = true;
+    }
+
+    @Data
+    public static class CatalogueSnapshot {
+
+        // Keeps the unfiltered list of books serialized and gzipped in memory, built again after every write
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class PriceMigration {
+
+        // Converts the prices still stored as strings to Decimal128 at startup
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class AuthorNameMigration {
+
+        // Sets the normalized author name of the books saved before it was stored at startup
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Export {
+
+        // How long the export may stream the books for, the other asynchronous requests keep the default timeout
+        @NotNull
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+}
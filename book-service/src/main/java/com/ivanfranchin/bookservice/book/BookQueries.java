@@ -0,0 +1,235 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.exception.InvalidBookFieldsException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookSortException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import org.bson.Document;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Query parameters shared by the blocking and the reactive book services and repositories.
+ */
+final class BookQueries {
+
+    private BookQueries() {
+    }
+
+    static int pageSize(BookProperties bookProperties, Integer size) {
+        BookProperties.Pagination pagination = bookProperties.getPagination();
+        if (size == null) {
+            return pagination.getDefaultPageSize();
+        }
+        return Math.min(size, pagination.getMaxPageSize());
+    }
+
+    // One extra document is fetched to know whether there is a next page without issuing a count
+    static Limit pageLimit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    static BookPage toPage(List<Book> books, int pageSize) {
+        if (books.size() <= pageSize) {
+            return new BookPage(books, null);
+        }
+        List<Book> page = books.subList(0, pageSize);
+        return new BookPage(page, BookCursor.encode(page.getLast().getId()));
+    }
+
+    static Limit unpagedLimit(BookProperties bookProperties) {
+        return Limit.of(bookProperties.getPagination().getMaxUnpagedResults());
+    }
+
+    static boolean isTextAuthorSearch(BookProperties bookProperties) {
+        return bookProperties.getAuthorSearch().getMode() == BookProperties.AuthorSearch.Mode.TEXT;
+    }
+
+    /**
+     * Smallest string greater than every string starting with the prefix, e.g. {@code "ivan" -> "ivao"}, or
+     * {@code null} when there is none, e.g. for a prefix made of U+10FFFF only. MongoDB compares strings by their UTF-8
+     * bytes, that is by code point, so the last code point is the one incremented, skipping the surrogate range, e.g.
+     * U+FFFF becomes U+10000. The greatest code point, and a lone surrogate, have no successor, so they are dropped and
+     * the code point before them is incremented instead.
+     */
+    static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0) {
+            int codePoint = prefix.codePointBefore(end);
+            int start = end - Character.charCount(codePoint);
+            if (codePoint < Character.MAX_CODE_POINT && !isSurrogate(codePoint)) {
+                int next = codePoint + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : codePoint + 1;
+                return prefix.substring(0, start) + Character.toString(next);
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    // Criteria on the strings of the field that start with the prefix
+    static Criteria startsWith(String field, String prefix) {
+        Criteria criteria = Criteria.where(field).gte(prefix);
+        String upperBound = prefixUpperBound(prefix);
+        return upperBound == null ? criteria : criteria.lt(upperBound);
+    }
+
+    private static boolean isSurrogate(int codePoint) {
+        return codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE;
+    }
+
+    /**
+     * Parses the {@code fields} request parameter, e.g. {@code title,price}, into the fields of the response to read,
+     * in a fixed order. When it is not informed, every field is read.
+     */
+    static List<String> responseFields(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return RESPONSE_FIELDS;
+        }
+        List<String> requested = Arrays.stream(fields.split(",")).map(String::trim).toList();
+        if (!RESPONSE_FIELDS.containsAll(requested)) {
+            throw new InvalidBookFieldsException(fields);
+        }
+        return RESPONSE_FIELDS.stream().filter(requested::contains).toList();
+    }
+
+    /**
+     * Builds the list query. Each filter informed narrows a range on the field it applies to, and every combination of
+     * them, with any sort, is served by an index: {@code normalizedAuthorName_title} when the author name is informed,
+     * {@code title_price} when the title prefix is, and {@code price_title} or {@code _id} otherwise.
+     */
+    static Query books(BookProperties bookProperties, BookFilter bookFilter, List<String> fields) {
+        boolean filterByAuthorName = StringUtils.hasText(bookFilter.authorName());
+        boolean textAuthorSearch = filterByAuthorName && isTextAuthorSearch(bookProperties);
+        Query query = textAuthorSearch
+                ? TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(bookFilter.authorName()))
+                : new Query();
+        if (filterByAuthorName && !textAuthorSearch) {
+            String prefix = Book.normalizeAuthorName(bookFilter.authorName());
+            query.addCriteria(startsWith(NORMALIZED_AUTHOR_NAME_FIELD, prefix));
+        }
+        if (StringUtils.hasLength(bookFilter.titlePrefix())) {
+            String prefix = bookFilter.titlePrefix();
+            query.addCriteria(startsWith(TITLE_FIELD, prefix));
+        }
+        if (bookFilter.minPrice() != null || bookFilter.maxPrice() != null) {
+            Criteria price = Criteria.where(PRICE_FIELD);
+            if (bookFilter.minPrice() != null) {
+                price = price.gte(bookFilter.minPrice());
+            }
+            if (bookFilter.maxPrice() != null) {
+                price = price.lte(bookFilter.maxPrice());
+            }
+            query.addCriteria(price);
+        }
+        if (bookFilter.sort() != null) {
+            query.with(sort(bookFilter.sort()));
+        } else if (filterByAuthorName && !textAuthorSearch) {
+            query.with(Sort.by(NORMALIZED_AUTHOR_NAME_FIELD, TITLE_FIELD));
+        } else if (!textAuthorSearch) {
+            query.with(Sort.by(ID_FIELD));
+        }
+        return project(query.limit(unpagedLimit(bookProperties)), fields);
+    }
+
+    // e.g. "price" -> price ascending, "-title" -> title descending. The author name is sorted by its normalized form,
+    // the one the normalizedAuthorName_title index is built on
+    static Sort sort(String sort) {
+        boolean descending = sort.startsWith("-");
+        String key = descending ? sort.substring(1) : sort;
+        String field = switch (key) {
+            case "id" -> ID_FIELD;
+            case "authorName" -> NORMALIZED_AUTHOR_NAME_FIELD;
+            case "title" -> TITLE_FIELD;
+            case "price" -> PRICE_FIELD;
+            default -> throw new InvalidBookSortException(sort);
+        };
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field);
+    }
+
+    // The id and the version are always read, as the ETag of a list is computed from them
+    private static Query project(Query query, List<String> fields) {
+        query.fields().include(ID_FIELD, VERSION_FIELD).include(fields.toArray(String[]::new));
+        return query;
+    }
+
+    static Query byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            criteria = criteria.and(VERSION_FIELD).is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    // Writes made through an Update bypass the @Version handling of save, so the version is bumped explicitly, along
+    // with the modification time
+    static Update touch(Update update) {
+        if (!update.modifies(VERSION_FIELD)) {
+            update.inc(VERSION_FIELD, 1L);
+        }
+        // Truncated to what MongoDB stores, so that the book computed by applied is the one read back afterwards
+        return update.set(UPDATED_AT_FIELD, Instant.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * The book as it is after a touched update, computed from the book as it was before it, as a findAndModify returns
+     * only one of them. Only the fields set by {@link Book#toUpdate} and {@link #touch} are supported.
+     */
+    static Book applied(Book book, Update update) {
+        Book updatedBook = new Book(book.getId(), book.getAuthorName(), book.getTitle(), book.getPrice());
+        updatedBook.setVersion(book.getVersion());
+        updatedBook.setUpdatedAt(book.getUpdatedAt());
+        Document set = update.getUpdateObject().get("$set", Document.class);
+        if (set != null) {
+            set.forEach((field, value) -> {
+                switch (field) {
+                    case AUTHOR_NAME_FIELD -> updatedBook.setAuthorName((String) value);
+                    case NORMALIZED_AUTHOR_NAME_FIELD -> {
+                        // Derived from the author name
+                    }
+                    case TITLE_FIELD -> updatedBook.setTitle((String) value);
+                    case PRICE_FIELD -> updatedBook.setPrice((BigDecimal) value);
+                    case UPDATED_AT_FIELD -> updatedBook.setUpdatedAt((Instant) value);
+                    default -> throw new IllegalArgumentException("Field '%s' can't be applied to a book".formatted(field));
+                }
+            });
+        }
+        Document inc = update.getUpdateObject().get("$inc", Document.class);
+        if (inc != null && inc.containsKey(VERSION_FIELD)) {
+            long version = book.getVersion() == null ? 0 : book.getVersion();
+            updatedBook.setVersion(version + ((Number) inc.get(VERSION_FIELD)).longValue());
+        }
+        return updatedBook;
+    }
+
+    static boolean changesAuthor(Update update) {
+        return update.modifies(NORMALIZED_AUTHOR_NAME_FIELD);
+    }
+
+    // Only the author and the price of a book are summarized by its author, a change of title leaves it as it is
+    static boolean changesAuthorSummary(Update update) {
+        return changesAuthor(update) || update.modifies(PRICE_FIELD);
+    }
+
+    static final List<String> RESPONSE_FIELDS = List.of("id", "authorName", "title", "price");
+
+    private static final String ID_FIELD = "id";
+    private static final String AUTHOR_NAME_FIELD = "authorName";
+    private static final String NORMALIZED_AUTHOR_NAME_FIELD = "normalizedAuthorName";
+    private static final String TITLE_FIELD = "title";
+    private static final String PRICE_FIELD = "price";
+    private static final String VERSION_FIELD = "version";
+    private static final String UPDATED_AT_FIELD = "updatedAt";
+}
@@ -1,13 +1,27 @@
 package com.ivanfranchin.bookservice.book;
 
 import com.ivanfranchin.bookservice.book.model.Book;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends MongoRepository<Book, String> {
+public interface BookRepository extends MongoRepository<Book, String>, BookRepositoryCustom {
 
-    List<Book> findByAuthorNameLike(String authorName);
+    // A range on the normalized author name gives tight bounds on the normalizedAuthorName_title index. The list
+    // endpoint runs the same query through findViews, and this one is kept as the baseline of AuthorSearchBenchmark
+    @Query(value = "{ 'normalizedAuthorName': { $gte: ?0, $lt: ?1 } }", sort = "{ 'normalizedAuthorName': 1, 'title': 1 }")
+    List<Book> findByNormalizedAuthorNamePrefix(String prefix, String prefixUpperBound, Limit limit);
+
+    List<Book> findAllByOrderByIdAsc(Limit limit);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    @Meta(cursorBatchSize = 500)
+    Stream<Book> streamAllBy();
 }
@@ -0,0 +1,73 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Applies the update, increments the version and returns the book as it was before it and as it is after it, in a
+     * single findAndModify. When {@code expectedVersion} is informed, the book is only updated if it is still at that
+     * version.
+     */
+    Optional<BookChange> findAndUpdateById(String id, Long expectedVersion, Update update);
+
+    /**
+     * Removes the book and returns it, in a single findAndRemove. When {@code expectedVersion} is informed, the book is
+     * only removed if it is still at that version.
+     */
+    Optional<Book> findAndRemoveById(String id, Long expectedVersion);
+
+    /**
+     * Runs the query and decodes the documents found straight into views, reading only the fields projected by it.
+     */
+    List<BookView> findViews(Query query);
+
+    /*
+     * The bulk methods below send their writes to MongoDB as a single bulkWrite and return the error message of every
+     * write that failed, keyed by its position in the list. In ordered mode, MongoDB stops at the first failure, so the
+     * writes after it are not executed. Updates and removes also return how many books they matched, which is less
+     * than the writes that didn't fail when some of the books were removed in the meantime.
+     */
+
+    Map<Integer, String> bulkInsert(List<Book> books, boolean ordered);
+
+    BulkResult bulkUpdate(List<String> ids, List<Update> updates, boolean ordered);
+
+    BulkResult bulkRemove(List<String> ids, boolean ordered);
+
+    Set<String> findExistingIds(Collection<String> ids);
+
+    Set<String> findNormalizedAuthorNames(Collection<String> ids);
+
+    /**
+     * Converts the prices still stored as strings, by books saved before they were stored as Decimal128, and returns
+     * the number of books converted. Range filters, sorts and the $min/$max of the authors compare values by BSON type
+     * first, so those books would otherwise be left out of price ranges and sorted after every other book.
+     */
+    long convertStringPrices();
+
+    /**
+     * Sets the normalized author name of the books saved before it was stored, in pages, and returns the number of
+     * books changed. Those books are not found by author, and the authors read model groups them apart, under no name.
+     * It is computed by {@link Book#normalizeAuthorName}, as for the books saved since, which $toLower can't do as it
+     * only lowercases ASCII characters.
+     */
+    long normalizeAuthorNames();
+
+    record BulkResult(Map<Integer, String> errors, int matchedCount) {
+
+        static BulkResult empty() {
+            return new BulkResult(Map.of(), 0);
+        }
+    }
+}
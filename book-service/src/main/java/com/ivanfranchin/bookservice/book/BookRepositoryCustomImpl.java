@@ -0,0 +1,160 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<BookChange> findAndUpdateById(String id, Long expectedVersion, Update update) {
+        Query query = BookQueries.byIdAndVersion(id, expectedVersion);
+        Update touchedUpdate = BookQueries.touch(update);
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(false);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, touchedUpdate, options, Book.class))
+                .map(book -> new BookChange(book, BookQueries.applied(book, touchedUpdate)));
+    }
+
+    @Override
+    public Optional<Book> findAndRemoveById(String id, Long expectedVersion) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(BookQueries.byIdAndVersion(id, expectedVersion), Book.class));
+    }
+
+    @Override
+    public List<BookView> findViews(Query query) {
+        MappedBookQuery mappedQuery = MappedBookQuery.of(query, mongoTemplate.getConverter());
+        return mongoTemplate.execute(Book.class, collection -> collection
+                .withCodecRegistry(BookViewCodec.registry(collection.getCodecRegistry()))
+                .find(mappedQuery.filter(), BookView.class)
+                .projection(mappedQuery.projection())
+                .sort(mappedQuery.sort())
+                .limit(mappedQuery.limit())
+                .into(new ArrayList<>(mappedQuery.limit())));
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Book> books, boolean ordered) {
+        if (books.isEmpty()) {
+            return Map.of();
+        }
+        return execute(bulkOperations(ordered).insert(books), BulkWriteResult::getInsertedCount).errors();
+    }
+
+    @Override
+    public BulkResult bulkUpdate(List<String> ids, List<Update> updates, boolean ordered) {
+        if (ids.isEmpty()) {
+            return BulkResult.empty();
+        }
+        BulkOperations bulkOperations = bulkOperations(ordered);
+        for (int i = 0; i < ids.size(); i++) {
+            bulkOperations.updateOne(byId(ids.get(i)), BookQueries.touch(updates.get(i)));
+        }
+        return execute(bulkOperations, BulkWriteResult::getMatchedCount);
+    }
+
+    @Override
+    public BulkResult bulkRemove(List<String> ids, boolean ordered) {
+        if (ids.isEmpty()) {
+            return BulkResult.empty();
+        }
+        return execute(bulkOperations(ordered).remove(ids.stream().map(this::byId).toList()), BulkWriteResult::getDeletedCount);
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Book.class).stream().map(Book::getId).collect(Collectors.toSet());
+    }
+
+    @Override
+    public Set<String> findNormalizedAuthorNames(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        return new HashSet<>(mongoTemplate.findDistinct(query, "normalizedAuthorName", Book.class, String.class));
+    }
+
+    // A pipeline update, so each price is converted by MongoDB itself, without reading the books back
+    @Override
+    public long convertStringPrices() {
+        Query query = Query.query(Criteria.where(PRICE_FIELD).type(JsonSchemaObject.Type.STRING));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set(PRICE_FIELD).toValue(ConvertOperators.valueOf(PRICE_FIELD).convertToDecimal());
+        return mongoTemplate.updateMulti(query, update, Book.class).getModifiedCount();
+    }
+
+    @Override
+    public long normalizeAuthorNames() {
+        Query query = Query.query(Criteria.where(NORMALIZED_AUTHOR_NAME_FIELD).exists(false)).limit(NORMALIZE_AUTHOR_NAMES_PAGE_SIZE);
+        query.fields().include(AUTHOR_NAME_FIELD);
+        String collectionName = mongoTemplate.getCollectionName(Book.class);
+        long normalizedCount = 0;
+        List<Document> books;
+        // Every page is normalized before the next one is read, so the same query finds the books still left
+        while (!(books = mongoTemplate.find(query, Document.class, collectionName)).isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+            for (Document book : books) {
+                // Books saved by the application meanwhile already have it, and are left as they are
+                Query notNormalized = Query.query(Criteria.where("_id").is(book.get("_id"))
+                        .and(NORMALIZED_AUTHOR_NAME_FIELD).exists(false));
+                String normalizedAuthorName = Book.normalizeAuthorName(book.getString(AUTHOR_NAME_FIELD));
+                bulkOperations.updateOne(notNormalized, Update.update(NORMALIZED_AUTHOR_NAME_FIELD, normalizedAuthorName));
+            }
+            normalizedCount += bulkOperations.execute().getModifiedCount();
+        }
+        return normalizedCount;
+    }
+
+    private BulkOperations bulkOperations(boolean ordered) {
+        BulkOperations.BulkMode bulkMode = ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED;
+        return mongoTemplate.bulkOps(bulkMode, Book.class);
+    }
+
+    private Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    private BulkResult execute(BulkOperations bulkOperations, ToIntFunction<BulkWriteResult> matchedCount) {
+        try {
+            return new BulkResult(Map.of(), matchedCount.applyAsInt(bulkOperations.execute()));
+        } catch (BulkOperationException e) {
+            Map<Integer, String> errors = e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+            return new BulkResult(errors, matchedCount.applyAsInt(e.getResult()));
+        }
+    }
+
+    private static final String PRICE_FIELD = "price";
+    private static final String AUTHOR_NAME_FIELD = "authorName";
+    private static final String NORMALIZED_AUTHOR_NAME_FIELD = "normalizedAuthorName";
+    private static final int NORMALIZE_AUTHOR_NAMES_PAGE_SIZE = 1000;
+}
@@ -1,35 +1,115 @@
 package com.ivanfranchin.bookservice.book;
 
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
 import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.exception.BookPreconditionFailedException;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.ivanfranchin.bookservice.config.NotReactiveWebApplicationCondition;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static com.ivanfranchin.bookservice.config.CacheConfig.BOOKS_CACHE;
+
+@Observed(name = "book.service")
 @RequiredArgsConstructor
 @Service
+@Conditional(NotReactiveWebApplicationCondition.class)
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookProperties bookProperties;
+    private final AuthorService authorService;
+    private final BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    /**
+     * Only the {@code fields} informed, plus the id and the version, are returned by MongoDB, and they are decoded
+     * straight into views, without going through the {@link Book} entity.
+     */
+    public List<BookView> getBooks(BookFilter bookFilter, List<String> fields) {
+        return bookRepository.findViews(BookQueries.books(bookProperties, bookFilter, fields));
+    }
 
-    public List<Book> getBooks() {
-        return bookRepository.findAll();
+    public BookPage getBooks(String cursor, Integer size) {
+        int pageSize = BookQueries.pageSize(bookProperties, size);
+        Limit limit = BookQueries.pageLimit(pageSize);
+        List<Book> books = cursor == null
+                ? bookRepository.findAllByOrderByIdAsc(limit)
+                : bookRepository.findByIdGreaterThanOrderByIdAsc(BookCursor.decode(cursor), limit);
+        return BookQueries.toPage(books, pageSize);
     }
 
-    public List<Book> getBooksByAuthorName(String authorName) {
-        return bookRepository.findByAuthorNameLike(authorName);
+    /**
+     * The stream is backed by an open MongoDB cursor, so it must be closed by the caller.
+     */
+    public Stream<Book> streamBooks() {
+        return bookRepository.streamAllBy();
     }
 
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#result.id")
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        book.setUpdatedAt(Instant.now());
+        Book savedBook = bookRepository.save(book);
+        bookCatalogueSnapshot.invalidate();
+        authorService.addBooks(List.of(savedBook));
+        return savedBook;
     }
 
-    public void deleteBook(Book book) {
-        bookRepository.delete(book);
+    /**
+     * Sets only the fields informed, atomically, so concurrent updates of other fields are not lost. When
+     * {@code expectedVersion} is informed, the book must still be at that version, otherwise nothing is updated. The
+     * book as it was before the update comes back from the same findAndModify, for its author to be adjusted.
+     */
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#id")
+    public Book updateBook(String id, Long expectedVersion, UpdateBookRequest updateBookRequest) {
+        Update update = Book.toUpdate(updateBookRequest);
+        if (update.getUpdateObject().isEmpty()) {
+            Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+            if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+                throw new BookPreconditionFailedException(id);
+            }
+            return book;
+        }
+        BookChange bookChange = bookRepository.findAndUpdateById(id, expectedVersion, update)
+                .orElseThrow(() -> notFoundOrPreconditionFailed(id, expectedVersion));
+        bookCatalogueSnapshot.invalidate();
+        authorService.updateBook(bookChange.previous(), bookChange.current());
+        return bookChange.current();
     }
 
+    @CacheEvict(cacheNames = BOOKS_CACHE, key = "#id")
+    public Book deleteBook(String id, Long expectedVersion) {
+        Book book = bookRepository.findAndRemoveById(id, expectedVersion)
+                .orElseThrow(() -> notFoundOrPreconditionFailed(id, expectedVersion));
+        bookCatalogueSnapshot.invalidate();
+        authorService.refreshAuthors(Arrays.asList(book.getNormalizedAuthorName()));
+        return book;
+    }
+
+    @Cacheable(cacheNames = BOOKS_CACHE)
     public Book validateAndGetBookById(String id) {
         return bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
     }
+
+    // Only reached when the write matched nothing, so the extra lookup is not paid by successful writes
+    private RuntimeException notFoundOrPreconditionFailed(String id, Long expectedVersion) {
+        if (expectedVersion != null && bookRepository.existsById(id)) {
+            return new BookPreconditionFailedException(id);
+        }
+        return new BookNotFoundException(id);
+    }
 }
@@ -0,0 +1,86 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import java.math.BigDecimal;
+
+/**
+ * Decodes a book document field by field into a {@link BookView}, with no intermediate {@code Document} or entity.
+ * Fields that are not part of the view are skipped without being decoded.
+ */
+final class BookViewCodec implements Codec<BookView> {
+
+    private static final BookViewCodec INSTANCE = new BookViewCodec();
+
+    private BookViewCodec() {
+    }
+
+    // The registry of the collection is kept, as it is still needed to encode the filter, the projection and the sort
+    static CodecRegistry registry(CodecRegistry collectionRegistry) {
+        return CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(INSTANCE), collectionRegistry);
+    }
+
+    @Override
+    public BookView decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String authorName = null;
+        String title = null;
+        BigDecimal price = null;
+        Long version = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> id = readId(reader);
+                case "authorName" -> authorName = reader.readString();
+                case "title" -> title = reader.readString();
+                case "price" -> price = readPrice(reader);
+                case "version" -> version = readVersion(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new BookView(id, authorName, title, price, version);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, BookView value, EncoderContext encoderContext) {
+        throw new UnsupportedOperationException("Book views are read only");
+    }
+
+    @Override
+    public Class<BookView> getEncoderClass() {
+        return BookView.class;
+    }
+
+    private static String readId(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.OBJECT_ID ? reader.readObjectId().toHexString() : reader.readString();
+    }
+
+    // Spring Data stores BigDecimal as a string unless it is configured to use Decimal128, so both are accepted
+    private static BigDecimal readPrice(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case DECIMAL128 -> reader.readDecimal128().bigDecimalValue();
+            case DOUBLE -> BigDecimal.valueOf(reader.readDouble());
+            case INT32 -> BigDecimal.valueOf(reader.readInt32());
+            case INT64 -> BigDecimal.valueOf(reader.readInt64());
+            default -> new BigDecimal(reader.readString());
+        };
+    }
+
+    private static Long readVersion(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : reader.readInt64();
+    }
+}
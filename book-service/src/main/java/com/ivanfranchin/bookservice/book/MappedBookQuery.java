@@ -0,0 +1,26 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * A query with its property names and values mapped to the book documents, as {@code MongoTemplate} would do, to be run
+ * straight on the driver collection so that the results can be decoded by {@link BookViewCodec}.
+ */
+record MappedBookQuery(Document filter, Document projection, Document sort, int limit) {
+
+    static MappedBookQuery of(Query query, MongoConverter mongoConverter) {
+        QueryMapper queryMapper = new QueryMapper(mongoConverter);
+        MongoPersistentEntity<?> entity = mongoConverter.getMappingContext().getRequiredPersistentEntity(Book.class);
+        return new MappedBookQuery(
+                queryMapper.getMappedObject(query.getQueryObject(), entity),
+                queryMapper.getMappedFields(query.getFieldsObject(), entity),
+                queryMapper.getMappedSort(query.getSortObject(), entity),
+                query.getLimit()
+        );
+    }
+}
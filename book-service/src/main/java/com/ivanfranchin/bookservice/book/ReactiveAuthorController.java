@@ -0,0 +1,64 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.AuthorResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+import static com.ivanfranchin.bookservice.config.SwaggerConfig.BEARER_KEY_SECURITY_SCHEME;
+
+/**
+ * WebFlux counterpart of {@link AuthorController}, active when the application runs with the {@code reactive} profile.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/authors")
+public class ReactiveAuthorController {
+
+    private final ReactiveAuthorService reactiveAuthorService;
+    private final BookProperties bookProperties;
+
+    @Operation(summary = "Get list of authors, sorted by name, with the number of books and the price range of each. It can be filtered by name prefix, case-insensitive")
+    @GetMapping
+    public Flux<AuthorResponse> getAuthors(@RequestParam(required = false) String namePrefix) {
+        log.debug("Get authors with name prefix {}", namePrefix);
+        return reactiveAuthorService.getAuthors(namePrefix).map(AuthorResponse::from);
+    }
+
+    @Operation(summary = "Get an author, by name, case-insensitive, with the number of books and the price range")
+    @GetMapping("/{authorName}")
+    public Mono<ResponseEntity<AuthorResponse>> getAuthor(@PathVariable String authorName) {
+        log.debug("Get author with name {}", authorName);
+        return reactiveAuthorService.validateAndGetAuthor(authorName)
+                .map(author -> ResponseEntity.ok().cacheControl(bookProperties.getHttpCache().toCacheControl()).body(AuthorResponse.from(author)));
+    }
+
+    @Operation(
+            summary = "Rebuild all the authors from the books",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping("/rebuild")
+    public Mono<Void> rebuildAuthors(Principal principal) {
+        log.info("Post request made by {} to rebuild the authors", principal.getName());
+        return reactiveAuthorService.rebuildAuthors()
+                .doOnNext(authorCount -> log.info("Authors rebuilt, {} authors", authorCount))
+                .then();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveAuthorRepository extends ReactiveMongoRepository<Author, String>, ReactiveAuthorRepositoryCustom {
+
+    Flux<Author> findAllByOrderByIdAsc(Limit limit);
+
+    @Query(value = "{ '_id': { $gte: ?0, $lt: ?1 } }", sort = "{ '_id': 1 }")
+    Flux<Author> findByIdPrefix(String prefix, String prefixUpperBound, Limit limit);
+
+    // A prefix with no upper bound, see BookQueries.prefixUpperBound
+    Flux<Author> findByIdGreaterThanEqualOrderByIdAsc(String id, Limit limit);
+}
@@ -0,0 +1,89 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ReactiveAuthorRepositoryCustomImpl implements ReactiveAuthorRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Void> addBooks(Collection<Book> books) {
+        Map<String, Update> additions = AuthorQueries.additionsOf(books);
+        if (additions.isEmpty()) {
+            return Mono.empty();
+        }
+        ReactiveBulkOperations bulkOperations = reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Author.class);
+        additions.forEach((id, update) -> bulkOperations.upsert(AuthorQueries.byId(id), update));
+        return bulkOperations.execute().then();
+    }
+
+    @Override
+    public Mono<Boolean> changePrice(String normalizedAuthorName, BigDecimal previousPrice, BigDecimal price) {
+        return reactiveMongoTemplate.updateFirst(AuthorQueries.byIdKeepingPriceRange(normalizedAuthorName, previousPrice, price),
+                        AuthorQueries.priceChange(price), Author.class)
+                .map(updateResult -> updateResult.getMatchedCount() > 0);
+    }
+
+    @Override
+    public Mono<Void> refresh(Collection<String> normalizedAuthorNames) {
+        return refresh(normalizedAuthorNames, 1);
+    }
+
+    @Override
+    public Mono<Void> rebuild() {
+        return reactiveMongoTemplate.aggregate(AuthorQueries.allAuthors(), Author.class).then();
+    }
+
+    private Mono<Void> refresh(Collection<String> normalizedAuthorNames, int attempt) {
+        return reactiveMongoTemplate.find(AuthorQueries.revisionsOf(normalizedAuthorNames), Author.class).collectList()
+                .zipWhen(storedAuthors -> reactiveMongoTemplate.aggregate(AuthorQueries.authorsOf(normalizedAuthorNames), Author.class).collectList())
+                .flatMap(authors -> write(new AuthorRefresh(normalizedAuthorNames, authors.getT1(), authors.getT2())))
+                .flatMap(applied -> {
+                    if (applied) {
+                        return Mono.empty();
+                    }
+                    if (attempt == AuthorRefresh.MAX_ATTEMPTS) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Authors %s kept being written while they were refreshed".formatted(normalizedAuthorNames)));
+                    }
+                    return refresh(normalizedAuthorNames, attempt + 1);
+                });
+    }
+
+    private Mono<Boolean> write(AuthorRefresh authorRefresh) {
+        if (authorRefresh.isEmpty()) {
+            return Mono.just(true);
+        }
+        ReactiveBulkOperations bulkOperations = reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Author.class);
+        for (AuthorRefresh.Replacement replacement : authorRefresh.replacements()) {
+            FindAndReplaceOptions options = replacement.upsert() ? FindAndReplaceOptions.options().upsert() : FindAndReplaceOptions.options();
+            bulkOperations.replaceOne(replacement.query(), replacement.author(), options);
+        }
+        if (!authorRefresh.removals().isEmpty()) {
+            bulkOperations.remove(authorRefresh.removals());
+        }
+        return bulkOperations.execute()
+                .map(authorRefresh::isAppliedBy)
+                // The reactive bulkWrite errors go through the exception translator, which turns the duplicate keys
+                // into a DuplicateKeyException
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+                .onErrorResume(BulkOperationException.class,
+                        e -> AuthorRefresh.isConflict(e) ? Mono.just(false) : Mono.error(e));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.exception.AuthorNotFoundException;
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ReactiveAuthorService {
+
+    private final ReactiveAuthorRepository reactiveAuthorRepository;
+    private final BookProperties bookProperties;
+
+    public Flux<Author> getAuthors(String namePrefix) {
+        Limit limit = BookQueries.unpagedLimit(bookProperties);
+        if (!StringUtils.hasText(namePrefix)) {
+            return reactiveAuthorRepository.findAllByOrderByIdAsc(limit);
+        }
+        String prefix = Book.normalizeAuthorName(namePrefix);
+        String prefixUpperBound = BookQueries.prefixUpperBound(prefix);
+        return prefixUpperBound == null
+                ? reactiveAuthorRepository.findByIdGreaterThanEqualOrderByIdAsc(prefix, limit)
+                : reactiveAuthorRepository.findByIdPrefix(prefix, prefixUpperBound, limit);
+    }
+
+    public Mono<Author> validateAndGetAuthor(String authorName) {
+        return reactiveAuthorRepository.findById(Book.normalizeAuthorName(authorName))
+                .switchIfEmpty(Mono.error(() -> new AuthorNotFoundException(authorName)));
+    }
+
+    // See AuthorService#addBooks
+    public Mono<Void> addBooks(Collection<Book> books) {
+        if (books.isEmpty()) {
+            return Mono.empty();
+        }
+        return update(books.stream().map(Book::getNormalizedAuthorName).collect(Collectors.toSet()),
+                reactiveAuthorRepository.addBooks(books));
+    }
+
+    // See AuthorService#updateBook
+    public Mono<Void> updateBook(Book previousBook, Book book) {
+        if (!Objects.equals(previousBook.getAuthorName(), book.getAuthorName())) {
+            Mono<Void> refresh = refreshAuthors(Arrays.asList(previousBook.getNormalizedAuthorName()));
+            return Objects.equals(previousBook.getNormalizedAuthorName(), book.getNormalizedAuthorName())
+                    ? refresh
+                    : refresh.then(addBooks(List.of(book)));
+        }
+        if (previousBook.getPrice().compareTo(book.getPrice()) != 0) {
+            String authorName = book.getNormalizedAuthorName();
+            return update(Set.of(authorName), reactiveAuthorRepository.changePrice(authorName, previousBook.getPrice(), book.getPrice())
+                    .flatMap(changed -> changed ? Mono.<Void>empty() : reactiveAuthorRepository.refresh(Set.of(authorName))));
+        }
+        return Mono.empty();
+    }
+
+    // See AuthorService#refreshAuthors
+    public Mono<Void> refreshAuthors(Collection<String> normalizedAuthorNames) {
+        Set<String> authorNames = normalizedAuthorNames.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (authorNames.isEmpty()) {
+            return Mono.empty();
+        }
+        return update(authorNames, reactiveAuthorRepository.refresh(authorNames));
+    }
+
+    public Mono<Long> rebuildAuthors() {
+        return reactiveAuthorRepository.rebuild().then(reactiveAuthorRepository.count());
+    }
+
+    // See AuthorService#update, a failure completes empty, as the books are already written
+    private Mono<Void> update(Set<String> authorNames, Mono<Void> update) {
+        return update.onErrorResume(e -> {
+            log.warn("Authors {} could not be updated", authorNames, e);
+            return Mono.empty();
+        });
+    }
+}
@@ -0,0 +1,148 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.BookPageResponse;
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.List;
+
+import static com.ivanfranchin.bookservice.config.SwaggerConfig.BEARER_KEY_SECURITY_SCHEME;
+
+/**
+ * WebFlux counterpart of {@link BookController}, active when the application runs with the {@code reactive} profile.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+    private final ReactiveBookService reactiveBookService;
+    private final BookProperties bookProperties;
+
+    @Operation(summary = "Get list of book. It can be filtered by author name (prefix, case-insensitive), title (prefix, case-sensitive) and price range, sorted by id, authorName, title or price (-key for descending), and the fields returned can be limited, e.g. fields=title,price, the id being always returned. The ETag returned can be informed in If-None-Match to get a 304 when the list has not changed")
+    @GetMapping
+    public Mono<ResponseEntity<List<BookResponse>>> getBooks(@RequestParam(required = false) String authorName,
+                                                             @RequestParam(required = false) String titlePrefix,
+                                                             @RequestParam(required = false) @PositiveOrZero BigDecimal minPrice,
+                                                             @RequestParam(required = false) @PositiveOrZero BigDecimal maxPrice,
+                                                             @RequestParam(required = false) String sort,
+                                                             @RequestParam(required = false) String fields) {
+        BookFilter bookFilter = new BookFilter(authorName, titlePrefix, minPrice, maxPrice, sort);
+        log.debug("Get books with {}", bookFilter);
+        List<String> responseFields = BookQueries.responseFields(fields);
+        // The ETag is a digest of the whole list, so it is collected before the response starts, as the servlet
+        // controller does. Its size is capped by book.pagination.max-unpaged-results
+        return reactiveBookService.getBooks(bookFilter, responseFields).collectList()
+                .map(books -> ResponseEntity.ok()
+                        .eTag(BookETag.of(books, responseFields))
+                        .cacheControl(bookProperties.getHttpCache().toCacheControl())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(books.stream().map(BookResponse::from).toList()));
+    }
+
+    @Operation(summary = "Get a page of books ordered by id. The next cursor returned must be informed to get the following page")
+    @GetMapping("/page")
+    public Mono<BookPageResponse> getBooksPage(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) @Positive Integer size) {
+        log.debug("Get books page with cursor {} and size {}", cursor, size);
+        return reactiveBookService.getBooks(cursor, size).map(BookPageResponse::from);
+    }
+
+    @Operation(summary = "Export all books as newline-delimited JSON, streamed straight from the database cursor")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookResponse> exportBooks() {
+        log.debug("Export books");
+        return reactiveBookService.streamBooks().map(BookResponse::from);
+    }
+
+    @Operation(summary = "Get book by id. The ETag returned can be informed in If-None-Match to get a 304 when the book has not changed")
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookResponse>> getBookById(@PathVariable String id) {
+        log.debug("Get books with id equals to {}", id);
+        return reactiveBookService.validateAndGetBookById(id)
+                .map(book -> toResponseEntity(ResponseEntity.ok().cacheControl(bookProperties.getHttpCache().toCacheControl()).varyBy(HttpHeaders.ACCEPT), book));
+    }
+
+    @Operation(
+            summary = "Create a book",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @PostMapping
+    public Mono<ResponseEntity<BookResponse>> createBook(@Valid @RequestBody CreateBookRequest createBookRequest, Principal principal) {
+        log.info("Post request made by {} to create a book", principal.getName());
+        logPayload(CREATE_BOOK, createBookRequest);
+        return reactiveBookService.saveBook(Book.from(createBookRequest)).map(book -> toResponseEntity(ResponseEntity.status(HttpStatus.CREATED), book));
+    }
+
+    @Operation(
+            summary = "Update a book. If an ETag is informed in If-Match, the book is only updated if it has not changed since",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<BookResponse>> updateBook(@PathVariable String id,
+                                                         @Valid @RequestBody UpdateBookRequest updateBookRequest,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         Principal principal) {
+        log.info("Patch request made by {} to update book with id {}", principal.getName(), id);
+        logPayload(UPDATE_BOOK, updateBookRequest);
+        return reactiveBookService.updateBook(id, BookETag.expectedVersion(id, ifMatch), updateBookRequest)
+                .map(book -> toResponseEntity(ResponseEntity.ok(), book));
+    }
+
+    @Operation(
+            summary = "Delete a book. If an ETag is informed in If-Match, the book is only deleted if it has not changed since",
+            security = {@SecurityRequirement(name = BEARER_KEY_SECURITY_SCHEME)})
+    @DeleteMapping("/{id}")
+    public Mono<BookResponse> deleteBook(@PathVariable String id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         Principal principal) {
+        log.info("Delete request made by {} to remove book with id {}", principal.getName(), id);
+        return reactiveBookService.deleteBook(id, BookETag.expectedVersion(id, ifMatch)).map(BookResponse::from);
+    }
+
+    private ResponseEntity<BookResponse> toResponseEntity(ResponseEntity.BodyBuilder bodyBuilder, Book book) {
+        bodyBuilder.eTag(BookETag.of(book));
+        if (book.getUpdatedAt() != null) {
+            bodyBuilder.lastModified(book.getUpdatedAt());
+        }
+        return bodyBuilder.body(BookResponse.from(book));
+    }
+
+    private void logPayload(String endpoint, Object payload) {
+        if (log.isDebugEnabled() && bookProperties.getPayloadLogging().isSampled(endpoint)) {
+            log.debug("Payload of {}: {}", endpoint, payload);
+        }
+    }
+
+    private static final String CREATE_BOOK = "create-book";
+    private static final String UPDATE_BOOK = "update-book";
+}
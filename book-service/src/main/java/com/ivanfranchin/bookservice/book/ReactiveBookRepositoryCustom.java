@@ -0,0 +1,30 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookRepositoryCustom {
+
+    /**
+     * Applies the update, increments the version and emits the book as it was before it and as it is after it, in a
+     * single findAndModify. When {@code expectedVersion} is informed, the book is only updated if it is still at that
+     * version.
+     */
+    Mono<BookChange> findAndUpdateById(String id, Long expectedVersion, Update update);
+
+    /**
+     * Removes the book and emits it, in a single findAndRemove. When {@code expectedVersion} is informed, the book is
+     * only removed if it is still at that version.
+     */
+    Mono<Book> findAndRemoveById(String id, Long expectedVersion);
+
+    /**
+     * Runs the query and decodes the documents found straight into views, reading only the fields projected by it.
+     */
+    Flux<BookView> findViews(Query query);
+}
@@ -0,0 +1,42 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ReactiveBookRepositoryCustomImpl implements ReactiveBookRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<BookChange> findAndUpdateById(String id, Long expectedVersion, Update update) {
+        Query query = BookQueries.byIdAndVersion(id, expectedVersion);
+        Update touchedUpdate = BookQueries.touch(update);
+        return reactiveMongoTemplate.findAndModify(query, touchedUpdate, FindAndModifyOptions.options().returnNew(false), Book.class)
+                .map(book -> new BookChange(book, BookQueries.applied(book, touchedUpdate)));
+    }
+
+    @Override
+    public Mono<Book> findAndRemoveById(String id, Long expectedVersion) {
+        return reactiveMongoTemplate.findAndRemove(BookQueries.byIdAndVersion(id, expectedVersion), Book.class);
+    }
+
+    @Override
+    public Flux<BookView> findViews(Query query) {
+        MappedBookQuery mappedQuery = MappedBookQuery.of(query, reactiveMongoTemplate.getConverter());
+        return reactiveMongoTemplate.execute(Book.class, collection -> collection
+                .withCodecRegistry(BookViewCodec.registry(collection.getCodecRegistry()))
+                .find(mappedQuery.filter(), BookView.class)
+                .projection(mappedQuery.projection())
+                .sort(mappedQuery.sort())
+                .limit(mappedQuery.limit()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.ivanfranchin.bookservice.book;
+
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.exception.BookPreconditionFailedException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Service
+public class ReactiveBookService {
+
+    private final ReactiveBookRepository reactiveBookRepository;
+    private final BookProperties bookProperties;
+    private final ReactiveAuthorService reactiveAuthorService;
+
+    public Flux<BookView> getBooks(BookFilter bookFilter, List<String> fields) {
+        return reactiveBookRepository.findViews(BookQueries.books(bookProperties, bookFilter, fields));
+    }
+
+    public Mono<BookPage> getBooks(String cursor, Integer size) {
+        int pageSize = BookQueries.pageSize(bookProperties, size);
+        Limit limit = BookQueries.pageLimit(pageSize);
+        Flux<Book> books = cursor == null
+                ? reactiveBookRepository.findAllByOrderByIdAsc(limit)
+                : Mono.fromCallable(() -> BookCursor.decode(cursor))
+                .flatMapMany(lastId -> reactiveBookRepository.findByIdGreaterThanOrderByIdAsc(lastId, limit));
+        return books.collectList().map(bookList -> BookQueries.toPage(bookList, pageSize));
+    }
+
+    public Flux<Book> streamBooks() {
+        return reactiveBookRepository.streamAllBy();
+    }
+
+    public Mono<Book> saveBook(Book book) {
+        book.setUpdatedAt(Instant.now());
+        return reactiveBookRepository.save(book)
+                .flatMap(savedBook -> reactiveAuthorService.addBooks(List.of(savedBook)).thenReturn(savedBook));
+    }
+
+    public Mono<Book> updateBook(String id, Long expectedVersion, UpdateBookRequest updateBookRequest) {
+        Update update = Book.toUpdate(updateBookRequest);
+        if (update.getUpdateObject().isEmpty()) {
+            return validateAndGetBookById(id).flatMap(book -> expectedVersion == null || expectedVersion.equals(book.getVersion())
+                    ? Mono.just(book)
+                    : Mono.error(new BookPreconditionFailedException(id)));
+        }
+        return reactiveBookRepository.findAndUpdateById(id, expectedVersion, update)
+                .switchIfEmpty(notFoundOrPreconditionFailed(id, expectedVersion))
+                .flatMap(bookChange -> reactiveAuthorService.updateBook(bookChange.previous(), bookChange.current())
+                        .thenReturn(bookChange.current()));
+    }
+
+    public Mono<Book> deleteBook(String id, Long expectedVersion) {
+        return reactiveBookRepository.findAndRemoveById(id, expectedVersion)
+                .switchIfEmpty(notFoundOrPreconditionFailed(id, expectedVersion))
+                .flatMap(book -> reactiveAuthorService.refreshAuthors(Arrays.asList(book.getNormalizedAuthorName())).thenReturn(book));
+    }
+
+    public Mono<Book> validateAndGetBookById(String id) {
+        return reactiveBookRepository.findById(id).switchIfEmpty(Mono.error(() -> new BookNotFoundException(id)));
+    }
+
+    private <T> Mono<T> notFoundOrPreconditionFailed(String id, Long expectedVersion) {
+        Mono<Boolean> exists = expectedVersion == null ? Mono.just(false) : reactiveBookRepository.existsById(id);
+        return exists.flatMap(bookExists -> Mono.error(bookExists
+                ? new BookPreconditionFailedException(id)
+                : new BookNotFoundException(id)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.dto;
+
+import com.ivanfranchin.bookservice.book.model.Author;
+
+import java.math.BigDecimal;
+
+public record AuthorResponse(String authorName, long bookCount, BigDecimal minPrice, BigDecimal maxPrice) {
+
+    public static AuthorResponse from(Author author) {
+        return new AuthorResponse(author.getAuthorName(), author.getBookCount(), author.getMinPrice(), author.getMaxPrice());
+    }
+}
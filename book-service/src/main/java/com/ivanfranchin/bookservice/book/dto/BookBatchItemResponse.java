@@ -0,0 +1,8 @@
+package com.ivanfranchin.bookservice.book.dto;
+
+public record BookBatchItemResponse(int index, String id, Status status, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, INVALID, NOT_FOUND, FAILED, SKIPPED
+    }
+}
@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.dto;
+
+import com.ivanfranchin.bookservice.book.model.BookPage;
+
+import java.util.List;
+
+public record BookPageResponse(List<BookResponse> content, String next) {
+
+    public static BookPageResponse from(BookPage bookPage) {
+        return new BookPageResponse(bookPage.books().stream().map(BookResponse::from).toList(), bookPage.next());
+    }
+}
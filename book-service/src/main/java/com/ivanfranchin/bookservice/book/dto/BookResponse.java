@@ -1,12 +1,20 @@
 package com.ivanfranchin.bookservice.book.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookView;
 
 import java.math.BigDecimal;
 
+// The fields left out of a list by the fields parameter are null, and are omitted instead of being written as null
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record BookResponse(String id, String authorName, String title, BigDecimal price) {
 
     public static BookResponse from(Book book) {
         return new BookResponse(book.getId(), book.getAuthorName(), book.getTitle(), book.getPrice());
     }
+
+    public static BookResponse from(BookView bookView) {
+        return new BookResponse(bookView.id(), bookView.authorName(), bookView.title(), bookView.price());
+    }
 }
@@ -0,0 +1,16 @@
+package com.ivanfranchin.bookservice.book.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+import java.math.BigDecimal;
+
+public record UpdateBookBatchRequest(
+        @Schema(example = "612f4f9438e39e473c4d098b") @NotBlank String id,
+        @Schema(example = "Ivan G. Franchin") String authorName,
+        @Schema(example = "Java 16") String title, @Schema(example = "20.5") BigDecimal price) {
+
+    public UpdateBookRequest toUpdateBookRequest() {
+        return new UpdateBookRequest(authorName, title, price);
+    }
+}
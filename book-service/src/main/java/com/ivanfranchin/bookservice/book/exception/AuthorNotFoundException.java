@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class AuthorNotFoundException extends RuntimeException {
+
+    public AuthorNotFoundException(String authorName) {
+        super(String.format("Author '%s' not found.", authorName));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BookBatchTooLargeException extends RuntimeException {
+
+    public BookBatchTooLargeException(int size, int maxSize) {
+        super(String.format("Batch has %s items, but at most %s are allowed.", size, maxSize));
+    }
+}
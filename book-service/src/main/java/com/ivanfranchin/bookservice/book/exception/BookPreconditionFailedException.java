@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BookPreconditionFailedException extends RuntimeException {
+
+    public BookPreconditionFailedException(String id) {
+        super(String.format("Book with id '%s' does not match the If-Match condition. It may have been modified in the meantime.", id));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBookCursorException extends RuntimeException {
+
+    public InvalidBookCursorException(String cursor) {
+        super(String.format("Cursor '%s' is invalid.", cursor));
+    }
+}
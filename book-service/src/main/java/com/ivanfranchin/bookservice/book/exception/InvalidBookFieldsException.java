@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBookFieldsException extends RuntimeException {
+
+    public InvalidBookFieldsException(String fields) {
+        super(String.format("Fields '%s' are invalid. The fields allowed are id, authorName, title and price.", fields));
+    }
+}
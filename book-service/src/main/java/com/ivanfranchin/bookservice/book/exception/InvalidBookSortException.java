@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBookSortException extends RuntimeException {
+
+    public InvalidBookSortException(String sort) {
+        super(String.format("Sort '%s' is invalid. The sort keys allowed are id, authorName, title and price, prefixed by - for descending order.", sort));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ivanfranchin.bookservice.book.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_ACCEPTABLE)
+public class NotAcceptableBookMediaTypeException extends RuntimeException {
+
+    public NotAcceptableBookMediaTypeException(String accept) {
+        super(String.format("Accept '%s' is invalid or accepts none of the media types of the books.", accept));
+    }
+}
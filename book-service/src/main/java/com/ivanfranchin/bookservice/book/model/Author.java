@@ -0,0 +1,40 @@
+package com.ivanfranchin.bookservice.book.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of the books of an author, derived from the books collection. It is keyed by the normalized author name,
+ * the one books are grouped by, and keeps one of the spellings found as the author name. The revision is incremented by
+ * every write, so that a recomputed author is only stored if nothing wrote it meanwhile. The authors written by a
+ * rebuild have none.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "authors")
+public class Author {
+
+    @Id
+    private String id;
+    private String authorName;
+    private long bookCount;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal minPrice;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal maxPrice;
+    private Long revision;
+
+    public Author(String id, String authorName, long bookCount, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.id = id;
+        this.authorName = authorName;
+        this.bookCount = bookCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+}
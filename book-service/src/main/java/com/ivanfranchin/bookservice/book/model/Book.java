@@ -2,32 +2,68 @@ package com.ivanfranchin.bookservice.book.model;
 
 import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
 import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Locale;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
-@Document(collection = "books")
+@Document(collection = "books", language = "none")
+@CompoundIndexes({
+        @CompoundIndex(name = "normalizedAuthorName_title", def = "{'normalizedAuthorName': 1, 'title': 1}"),
+        @CompoundIndex(name = "title_price", def = "{'title': 1, 'price': 1}"),
+        @CompoundIndex(name = "price_title", def = "{'price': 1, 'title': 1}")
+})
 public class Book {
 
     @Id
     private String id;
+    @TextIndexed
     private String authorName;
+    @Setter(AccessLevel.NONE)
+    private String normalizedAuthorName;
     private String title;
+    // Stored as Decimal128, not as the default string, so that price ranges and sorts compare numbers
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal price;
+    @Version
+    private Long version;
+    private Instant updatedAt;
 
-    public Book(String authorName, String title, BigDecimal price) {
-        this.authorName = authorName;
+    public Book(String id, String authorName, String title, BigDecimal price) {
+        this.id = id;
+        setAuthorName(authorName);
         this.title = title;
         this.price = price;
     }
 
+    public Book(String authorName, String title, BigDecimal price) {
+        this(null, authorName, title, price);
+    }
+
+    public void setAuthorName(String authorName) {
+        this.authorName = authorName;
+        this.normalizedAuthorName = normalizeAuthorName(authorName);
+    }
+
+    public static String normalizeAuthorName(String authorName) {
+        return authorName == null ? null : authorName.trim().toLowerCase(Locale.ROOT);
+    }
+
     public static Book from(CreateBookRequest createBookRequest) {
         return new Book(
                 createBookRequest.authorName(),
@@ -47,4 +83,20 @@ public class Book {
             book.setPrice(updateBookRequest.price());
         }
     }
+
+    // $set-only counterpart of updateFrom, for updates that don't load the book first
+    public static Update toUpdate(UpdateBookRequest updateBookRequest) {
+        Update update = new Update();
+        if (updateBookRequest.authorName() != null) {
+            update.set("authorName", updateBookRequest.authorName());
+            update.set("normalizedAuthorName", normalizeAuthorName(updateBookRequest.authorName()));
+        }
+        if (updateBookRequest.title() != null) {
+            update.set("title", updateBookRequest.title());
+        }
+        if (updateBookRequest.price() != null) {
+            update.set("price", updateBookRequest.price());
+        }
+        return update;
+    }
 }
@@ -0,0 +1,7 @@
+package com.ivanfranchin.bookservice.book.model;
+
+/**
+ * A book as it was before an update and as it is after it.
+ */
+public record BookChange(Book previous, Book current) {
+}
@@ -0,0 +1,14 @@
+package com.ivanfranchin.bookservice.book.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The filters and the sort of a list request. Every filter is optional, and the ones informed must all match. The sort
+ * is one of {@code id}, {@code authorName}, {@code title} or {@code price}, descending when prefixed by {@code -}.
+ */
+public record BookFilter(String authorName, String titlePrefix, BigDecimal minPrice, BigDecimal maxPrice, String sort) {
+
+    public static BookFilter none() {
+        return new BookFilter(null, null, null, null, null);
+    }
+}
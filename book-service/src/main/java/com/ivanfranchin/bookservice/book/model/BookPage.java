@@ -0,0 +1,6 @@
+package com.ivanfranchin.bookservice.book.model;
+
+import java.util.List;
+
+public record BookPage(List<Book> books, String next) {
+}
@@ -0,0 +1,10 @@
+package com.ivanfranchin.bookservice.book.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The fields of a book read by the list queries, decoded straight from the BSON document. The fields that were not
+ * projected are {@code null}.
+ */
+public record BookView(String id, String authorName, String title, BigDecimal price, Long version) {
+}
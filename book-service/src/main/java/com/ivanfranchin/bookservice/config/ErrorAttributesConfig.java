@@ -1,5 +1,6 @@
 package com.ivanfranchin.bookservice.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.error.ErrorAttributeOptions.Include;
 import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
@@ -7,6 +8,7 @@ import org.springframework.boot.web.servlet.error.ErrorAttributes;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.reactive.function.server.ServerRequest;
 
 import java.util.Map;
 
@@ -14,6 +16,7 @@ import java.util.Map;
 public class ErrorAttributesConfig {
 
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     ErrorAttributes errorAttributes() {
         return new DefaultErrorAttributes() {
             @Override
@@ -22,4 +25,15 @@ public class ErrorAttributesConfig {
             }
         };
     }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    org.springframework.boot.web.reactive.error.ErrorAttributes reactiveErrorAttributes() {
+        return new org.springframework.boot.web.reactive.error.DefaultErrorAttributes() {
+            @Override
+            public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
+                return super.getErrorAttributes(request, options.including(Include.EXCEPTION, Include.MESSAGE, Include.BINDING_ERRORS));
+            }
+        };
+    }
 }
@@ -0,0 +1,41 @@
+package com.ivanfranchin.bookservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@RequiredArgsConstructor
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "server.http2", name = "enabled", havingValue = "true")
+public class Http2Config {
+
+    private final TomcatHttp2Properties http2Properties;
+
+    // Spring Boot adds the HTTP/2 upgrade protocol to the connector, but only exposes the HTTP/1.1 settings, so the
+    // HTTP/2 ones are set on it here. Connector customizers run after the protocol is added
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2ProtocolCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol http2Protocol) {
+                    if (http2Properties.getMaxConcurrentStreams() != null) {
+                        http2Protocol.setMaxConcurrentStreams(http2Properties.getMaxConcurrentStreams());
+                    }
+                    if (http2Properties.getMaxConcurrentStreamExecution() != null) {
+                        http2Protocol.setMaxConcurrentStreamExecution(http2Properties.getMaxConcurrentStreamExecution());
+                    }
+                    if (http2Properties.getKeepAliveTimeout() != null) {
+                        http2Protocol.setKeepAliveTimeout(http2Properties.getKeepAliveTimeout().toMillis());
+                    }
+                }
+            }
+        });
+    }
+}
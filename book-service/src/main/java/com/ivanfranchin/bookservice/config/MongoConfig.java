@@ -0,0 +1,47 @@
+package com.ivanfranchin.bookservice.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+@Configuration
+public class MongoConfig {
+
+    private final MongoConnectionPoolProperties connectionPoolProperties;
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer connectionPoolCustomizer() {
+        return builder -> builder.applyToConnectionPoolSettings(connectionPool -> {
+            if (connectionPoolProperties.getMaxSize() != null) {
+                connectionPool.maxSize(connectionPoolProperties.getMaxSize());
+            }
+            if (connectionPoolProperties.getMinSize() != null) {
+                connectionPool.minSize(connectionPoolProperties.getMinSize());
+            }
+            if (connectionPoolProperties.getMaxConnecting() != null) {
+                connectionPool.maxConnecting(connectionPoolProperties.getMaxConnecting());
+            }
+            if (connectionPoolProperties.getMaxWaitTime() != null) {
+                connectionPool.maxWaitTime(connectionPoolProperties.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (connectionPoolProperties.getMaxConnectionIdleTime() != null) {
+                connectionPool.maxConnectionIdleTime(connectionPoolProperties.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    // One span per command, child of the span of the request. The context provider hands the current observation to the
+    // driver, taken from the thread for the blocking client and from the Reactor context for the reactive one
+    @Bean
+    MongoClientSettingsBuilderCustomizer observationCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder.contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -0,0 +1,29 @@
+package com.ivanfranchin.bookservice.config;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * MongoDB driver connection pool settings. Properties left unset keep the driver defaults.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "mongodb.connection-pool")
+public class MongoConnectionPoolProperties {
+
+    @Positive
+    private Integer maxSize;
+    @PositiveOrZero
+    private Integer minSize;
+    @Positive
+    private Integer maxConnecting;
+    private Duration maxWaitTime;
+    private Duration maxConnectionIdleTime;
+}
@@ -0,0 +1,21 @@
+package com.ivanfranchin.bookservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+
+/**
+ * Matches unless book-service runs as a reactive web application, i.e. with the {@code reactive} profile. The blocking
+ * services and the startup migrations use it, so that neither they nor the blocking MongoDB client they need are
+ * created on WebFlux. Unlike {@code @ConditionalOnWebApplication(type = SERVLET)}, it also matches outside a web
+ * application context, as in the service tests.
+ */
+public class NotReactiveWebApplicationCondition extends NoneNestedConditions {
+
+    NotReactiveWebApplicationCondition() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class OnReactiveWebApplication {
+    }
+}
@@ -0,0 +1,31 @@
+package com.ivanfranchin.bookservice.config;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Tomcat HTTP/2 settings, applied when {@code server.http2.enabled} is true. Properties left unset keep the Tomcat
+ * defaults.
+ */
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "tomcat.http2")
+public class TomcatHttp2Properties {
+
+    // Streams a client may have open on a single connection, the ones above it are refused
+    @Positive
+    private Integer maxConcurrentStreams;
+
+    // Streams of a single connection processed at the same time by the request threads, the others wait their turn
+    @Positive
+    private Integer maxConcurrentStreamExecution;
+
+    // How long an idle connection, with no stream open, is kept before it is closed
+    private Duration keepAliveTimeout;
+}
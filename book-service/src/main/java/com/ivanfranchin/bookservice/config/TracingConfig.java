@@ -0,0 +1,22 @@
+package com.ivanfranchin.bookservice.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * With the {@code tracing-file} profile, spans are exported as OTLP JSON, one line per resource, to the file set by
+ * {@code tracing.file.path} (see {@code logback-spring.xml}), so that traces can be checked without a collector. To send
+ * them to a collector instead, set {@code management.otlp.tracing.endpoint}.
+ */
+@Profile("tracing-file")
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    SpanExporter otlpJsonFileSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
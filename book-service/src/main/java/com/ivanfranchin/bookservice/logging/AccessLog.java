@@ -0,0 +1,27 @@
+package com.ivanfranchin.bookservice.logging;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes one event per request to the {@code access} logger, with the request and its outcome as key-value pairs. The
+ * logger has its own appender in {@code logback-spring.xml}, which writes the events as JSON.
+ */
+@Slf4j(topic = "access")
+final class AccessLog {
+
+    private AccessLog() {
+    }
+
+    static void log(String method, String path, int status, long startNanos) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        double durationMs = (System.nanoTime() - startNanos) / 1_000_000.0;
+        log.atInfo()
+                .addKeyValue("method", method)
+                .addKeyValue("path", path)
+                .addKeyValue("status", status)
+                .addKeyValue("duration_ms", durationMs)
+                .log("{} {} {}", method, path, status);
+    }
+}
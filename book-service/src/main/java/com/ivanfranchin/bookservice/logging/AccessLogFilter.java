@@ -0,0 +1,48 @@
+package com.ivanfranchin.bookservice.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Logs every request to the access log once it has completed. It runs inside the observation filter, so that the trace
+ * and span ids are in the MDC, and it also runs on async dispatches, so that streamed responses, like the books export,
+ * are logged when they end rather than when the controller returns.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long startNanos = (Long) request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (startNanos == null) {
+            startNanos = System.nanoTime();
+            request.setAttribute(START_NANOS_ATTRIBUTE, startNanos);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                AccessLog.log(request.getMethod(), request.getRequestURI(), response.getStatus(), startNanos);
+            }
+        }
+    }
+
+    private static final String START_NANOS_ATTRIBUTE = AccessLogFilter.class.getName() + ".startNanos";
+}
@@ -0,0 +1,33 @@
+package com.ivanfranchin.bookservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * Looks bearer tokens up in the {@link JwtAuthenticationCache} before delegating to the JWT authentication, which
+ * decodes and verifies the token and converts it with {@link JwtAuthConverter}.
+ */
+@RequiredArgsConstructor
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationManager delegate;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearerToken)) {
+            return delegate.authenticate(authentication);
+        }
+        JwtAuthenticationToken cachedAuthentication = jwtAuthenticationCache.get(bearerToken.getToken());
+        if (cachedAuthentication != null) {
+            cachedAuthentication.setDetails(bearerToken.getDetails());
+            return cachedAuthentication;
+        }
+        Authentication result = delegate.authenticate(bearerToken);
+        jwtAuthenticationCache.put(bearerToken.getToken(), result);
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ivanfranchin.bookservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link CachingJwtAuthenticationManager}.
+ */
+@RequiredArgsConstructor
+public class CachingReactiveJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearerToken)) {
+            return delegate.authenticate(authentication);
+        }
+        JwtAuthenticationToken cachedAuthentication = jwtAuthenticationCache.get(bearerToken.getToken());
+        if (cachedAuthentication != null) {
+            return Mono.just(cachedAuthentication);
+        }
+        return delegate.authenticate(bearerToken)
+                .doOnNext(result -> jwtAuthenticationCache.put(bearerToken.getToken(), result));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ivanfranchin.bookservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out a single shared {@link GrantedAuthority} per name, so that converting a token doesn't concatenate the prefix
+ * and allocate an authority for the names that were already seen. As names come from the tokens, the number of them
+ * kept is bounded; past it, authorities are just built on every call.
+ */
+final class CanonicalAuthorities {
+
+    private final String prefix;
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+    private final Map<String, List<GrantedAuthority>> delimitedAuthorities = new ConcurrentHashMap<>();
+
+    CanonicalAuthorities(String prefix, String... knownNames) {
+        this.prefix = prefix;
+        for (String knownName : knownNames) {
+            authorities.put(knownName, new SimpleGrantedAuthority(prefix + knownName));
+        }
+    }
+
+    GrantedAuthority get(String name) {
+        GrantedAuthority authority = authorities.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        authority = new SimpleGrantedAuthority(prefix + name);
+        if (authorities.size() < MAX_SIZE) {
+            GrantedAuthority existing = authorities.putIfAbsent(name, authority);
+            return existing != null ? existing : authority;
+        }
+        return authority;
+    }
+
+    /**
+     * Returns the authorities of names delimited by spaces, like the {@code scope} claim. Claims with the same value
+     * share the same unmodifiable list.
+     */
+    List<GrantedAuthority> getAll(String spaceDelimitedNames) {
+        List<GrantedAuthority> authorityList = delimitedAuthorities.get(spaceDelimitedNames);
+        if (authorityList != null) {
+            return authorityList;
+        }
+        List<GrantedAuthority> newAuthorityList = new ArrayList<>();
+        for (String name : spaceDelimitedNames.split(" ")) {
+            if (!name.isEmpty()) {
+                GrantedAuthority authority = get(name);
+                if (!newAuthorityList.contains(authority)) {
+                    newAuthorityList.add(authority);
+                }
+            }
+        }
+        authorityList = List.copyOf(newAuthorityList);
+        if (delimitedAuthorities.size() < MAX_SIZE) {
+            delimitedAuthorities.putIfAbsent(spaceDelimitedNames, authorityList);
+        }
+        return authorityList;
+    }
+
+    private static final int MAX_SIZE = 1000;
+}
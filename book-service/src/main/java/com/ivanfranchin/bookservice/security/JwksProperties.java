@@ -0,0 +1,37 @@
+package com.ivanfranchin.bookservice.security;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "jwt.auth.jwks")
+public class JwksProperties {
+
+    // Local JWK set, e.g. a copy of the response of Keycloak certs endpoint. When informed, keys are never fetched remotely
+    private Resource keySetFile;
+
+    @NotNull
+    private Duration cacheTimeToLive = Duration.ofMinutes(5);
+
+    // How long before the cache expires it is refreshed, in the background
+    @NotNull
+    private Duration refreshAheadTime = Duration.ofSeconds(30);
+
+    // How long the last known keys keep being used while the JWK set can't be fetched
+    @NotNull
+    private Duration outageTolerance = Duration.ofHours(12);
+
+    @NotNull
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    @NotNull
+    private Duration readTimeout = Duration.ofSeconds(2);
+}
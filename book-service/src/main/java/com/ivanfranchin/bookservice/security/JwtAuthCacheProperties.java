@@ -0,0 +1,20 @@
+package com.ivanfranchin.bookservice.security;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Data
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "jwt.auth.cache")
+public class JwtAuthCacheProperties {
+
+    private boolean enabled = true;
+
+    // Maximum number of distinct tokens kept. Each entry expires anyway when its token does
+    @Positive
+    private int maxSize = 10000;
+}
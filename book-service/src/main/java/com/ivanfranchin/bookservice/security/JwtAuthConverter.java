@@ -3,23 +3,29 @@ package com.ivanfranchin.bookservice.security;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimNames;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import static com.ivanfranchin.bookservice.security.SecurityConfig.MANAGE_BOOKS;
+import static com.ivanfranchin.bookservice.security.SecurityConfig.READ_METRICS;
+
+/**
+ * Grants the scopes of the token, like {@code JwtGrantedAuthoritiesConverter} does, plus the roles of the resource
+ * {@code jwt.auth.converter.resource-id} in the {@code resource_access} claim. Runs for every token, so claims are walked
+ * with plain loops and authorities are shared instances, instead of being built with streams on every call.
+ */
 @Component
 public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationToken> {
 
-    private final JwtGrantedAuthoritiesConverter jwtGrantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    private final CanonicalAuthorities scopeAuthorities = new CanonicalAuthorities(SCOPE_AUTHORITY_PREFIX);
+    private final CanonicalAuthorities roleAuthorities = new CanonicalAuthorities(ROLE_AUTHORITY_PREFIX, MANAGE_BOOKS, READ_METRICS);
 
     private final JwtAuthConverterProperties properties;
 
@@ -29,10 +35,7 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
 
     @Override
     public AbstractAuthenticationToken convert(Jwt jwt) {
-        Collection<GrantedAuthority> authorities = Stream.concat(
-                jwtGrantedAuthoritiesConverter.convert(jwt).stream(),
-                extractResourceRoles(jwt).stream()).collect(Collectors.toSet());
-        return new JwtAuthenticationToken(jwt, authorities, getPrincipalClaimName(jwt));
+        return new JwtAuthenticationToken(jwt, extractAuthorities(jwt), getPrincipalClaimName(jwt));
     }
 
     private String getPrincipalClaimName(Jwt jwt) {
@@ -43,17 +46,60 @@ public class JwtAuthConverter implements Converter<Jwt, AbstractAuthenticationTo
         return jwt.getClaim(claimName);
     }
 
-    private Collection<? extends GrantedAuthority> extractResourceRoles(Jwt jwt) {
-        Map<String, Object> resourceAccess = jwt.getClaim("resource_access");
-        Map<String, Object> resource;
-        Collection<String> resourceRoles;
-        if (resourceAccess == null
-                || (resource = (Map<String, Object>) resourceAccess.get(properties.getResourceId())) == null
-                || (resourceRoles = (Collection<String>) resource.get("roles")) == null) {
-            return Collections.emptySet();
-        }
-        return resourceRoles.stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                .collect(Collectors.toSet());
+    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+        List<GrantedAuthority> scopes = extractScopes(jwt);
+        Collection<?> resourceRoles = extractResourceRoles(jwt);
+        if (resourceRoles.isEmpty()) {
+            return scopes;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(scopes.size() + resourceRoles.size());
+        for (int i = 0; i < scopes.size(); i++) {
+            authorities.add(scopes.get(i));
+        }
+        for (Object role : resourceRoles) {
+            if (role instanceof String roleName) {
+                GrantedAuthority authority = roleAuthorities.get(roleName);
+                if (!authorities.contains(authority)) {
+                    authorities.add(authority);
+                }
+            }
+        }
+        return authorities;
     }
+
+    private List<GrantedAuthority> extractScopes(Jwt jwt) {
+        Object scopes = jwt.getClaims().get(SCOPE_CLAIM);
+        if (scopes == null) {
+            scopes = jwt.getClaims().get(SCP_CLAIM);
+        }
+        if (scopes instanceof String scopeNames) {
+            return scopeAuthorities.getAll(scopeNames);
+        }
+        if (scopes instanceof Collection<?> scopeNames && !scopeNames.isEmpty()) {
+            List<GrantedAuthority> authorities = new ArrayList<>(scopeNames.size());
+            for (Object scope : scopeNames) {
+                if (scope instanceof String scopeName) {
+                    authorities.add(scopeAuthorities.get(scopeName));
+                }
+            }
+            return authorities;
+        }
+        return List.of();
+    }
+
+    private Collection<?> extractResourceRoles(Jwt jwt) {
+        if (jwt.getClaims().get(RESOURCE_ACCESS_CLAIM) instanceof Map<?, ?> resourceAccess
+                && resourceAccess.get(properties.getResourceId()) instanceof Map<?, ?> resource
+                && resource.get(ROLES_CLAIM) instanceof Collection<?> resourceRoles) {
+            return resourceRoles;
+        }
+        return List.of();
+    }
+
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String SCP_CLAIM = "scp";
+    private static final String RESOURCE_ACCESS_CLAIM = "resource_access";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String SCOPE_AUTHORITY_PREFIX = "SCOPE_";
+    private static final String ROLE_AUTHORITY_PREFIX = "ROLE_";
 }
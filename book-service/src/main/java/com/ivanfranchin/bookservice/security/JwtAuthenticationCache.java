@@ -0,0 +1,76 @@
+package com.ivanfranchin.bookservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Bounded cache of the authentications built from bearer tokens, so that a token sent again skips the signature
+ * verification, the claims validation and the authorities conversion. Entries are keyed by a SHA-256 digest of the
+ * token, so raw tokens are not kept in memory, and expire when the token does.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final boolean enabled;
+    private final Cache<String, JwtAuthenticationToken> cache;
+
+    public JwtAuthenticationCache(JwtAuthCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(Expiry.creating((String digest, JwtAuthenticationToken authentication) -> timeToLive(authentication)))
+                .build();
+    }
+
+    /**
+     * Returns {@code null} when the token is not cached. Otherwise, a new authentication is returned on every call, so
+     * that the details set for one request are never seen by another.
+     */
+    public JwtAuthenticationToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        JwtAuthenticationToken authentication = cache.getIfPresent(digest(token));
+        if (authentication == null) {
+            return null;
+        }
+        return new JwtAuthenticationToken(authentication.getToken(), authentication.getAuthorities(), authentication.getName());
+    }
+
+    /**
+     * Only authentications of tokens with an expiration time are cached.
+     */
+    public void put(String token, Authentication authentication) {
+        if (enabled && authentication instanceof JwtAuthenticationToken jwtAuthentication
+                && jwtAuthentication.getToken().getExpiresAt() != null) {
+            cache.put(digest(token), jwtAuthentication);
+        }
+    }
+
+    private static Duration timeToLive(JwtAuthenticationToken authentication) {
+        Duration timeToLive = Duration.between(Instant.now(), authentication.getToken().getExpiresAt());
+        return timeToLive.isNegative() ? Duration.ZERO : timeToLive;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+}
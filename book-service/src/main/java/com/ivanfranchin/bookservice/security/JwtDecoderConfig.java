@@ -0,0 +1,141 @@
+package com.ivanfranchin.bookservice.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * Replaces the JWT decoder auto-configured from {@code issuer-uri}, which discovers and fetches the JWK set only when
+ * the first token arrives. Here, the JWK set is fetched at startup, refreshed in the background and kept while the
+ * authorization server can't be reached. The keys come, in order of precedence, from {@code jwt.auth.jwks.key-set-file},
+ * from {@code spring.security.oauth2.resourceserver.jwt.jwk-set-uri} (no discovery) or from the discovery of
+ * {@code issuer-uri}. Token issuer is validated whenever {@code issuer-uri} is informed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Configuration
+public class JwtDecoderConfig {
+
+    private final OAuth2ResourceServerProperties oAuth2ResourceServerProperties;
+    private final JwksProperties jwksProperties;
+
+    @Bean
+    JWKSource<SecurityContext> jwkSource() {
+        OAuth2ResourceServerProperties.Jwt jwt = oAuth2ResourceServerProperties.getJwt();
+        JWKSource<SecurityContext> jwkSource;
+        if (jwksProperties.getKeySetFile() != null) {
+            jwkSource = new ImmutableJWKSet<>(loadJwkSet());
+        } else if (StringUtils.hasText(jwt.getJwkSetUri())) {
+            URL jwkSetUrl = toUrl(jwt.getJwkSetUri());
+            jwkSource = new RemoteJwkSource(() -> jwkSetUrl, resourceRetriever(), jwksProperties);
+        } else if (StringUtils.hasText(jwt.getIssuerUri())) {
+            ResourceRetriever resourceRetriever = resourceRetriever();
+            jwkSource = new RemoteJwkSource(() -> discoverJwkSetUrl(jwt.getIssuerUri(), resourceRetriever), resourceRetriever, jwksProperties);
+        } else {
+            throw new IllegalStateException("One of jwt.auth.jwks.key-set-file, spring.security.oauth2.resourceserver.jwt.jwk-set-uri or spring.security.oauth2.resourceserver.jwt.issuer-uri must be informed");
+        }
+        warmUp(jwkSource);
+        return jwkSource;
+    }
+
+    @Bean
+    JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource, JwtObservations jwtObservations) {
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims are validated by the Spring Security validators set below
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        String issuerUri = oAuth2ResourceServerProperties.getJwt().getIssuerUri();
+        jwtDecoder.setJwtValidator(StringUtils.hasText(issuerUri)
+                ? JwtValidators.createDefaultWithIssuer(issuerUri)
+                : JwtValidators.createDefault());
+        return jwtObservations.observed(jwtDecoder);
+    }
+
+    // Decoding verifies an RSA signature, and a token signed with an unknown key makes the JWK source fetch the set
+    // again, so it runs on the bounded elastic scheduler rather than on the event loop. Decoded tokens are cached by
+    // CachingReactiveJwtAuthenticationManager, so it's only done for the first request of each token
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @Bean
+    ReactiveJwtDecoder reactiveJwtDecoder(JwtDecoder jwtDecoder) {
+        return token -> Mono.fromCallable(() -> jwtDecoder.decode(token)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private JWKSet loadJwkSet() {
+        try (InputStream inputStream = jwksProperties.getKeySetFile().getInputStream()) {
+            return JWKSet.load(inputStream);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unable to load the JWK set from " + jwksProperties.getKeySetFile(), e);
+        }
+    }
+
+    private ResourceRetriever resourceRetriever() {
+        return new DefaultResourceRetriever(
+                (int) jwksProperties.getConnectTimeout().toMillis(),
+                (int) jwksProperties.getReadTimeout().toMillis(),
+                JWK_SET_SIZE_LIMIT);
+    }
+
+    private static URL discoverJwkSetUrl(String issuerUri, ResourceRetriever resourceRetriever) throws IOException, ParseException {
+        URL configurationUrl = toUrl(StringUtils.trimTrailingCharacter(issuerUri, '/') + OPENID_CONFIGURATION_PATH);
+        Map<String, Object> configuration = JSONObjectUtils.parse(resourceRetriever.retrieveResource(configurationUrl).getContent());
+        URI jwkSetUri = JSONObjectUtils.getURI(configuration, "jwks_uri");
+        if (jwkSetUri == null) {
+            throw new IOException("No jwks_uri found at " + configurationUrl);
+        }
+        return jwkSetUri.toURL();
+    }
+
+    private static URL toUrl(String url) {
+        try {
+            return URI.create(url).toURL();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid URL " + url, e);
+        }
+    }
+
+    // A failure doesn't prevent the application from starting. The keys are fetched again when the first token arrives
+    private static void warmUp(JWKSource<SecurityContext> jwkSource) {
+        try {
+            int keys = jwkSource.get(new JWKSelector(new JWKMatcher.Builder().build()), null).size();
+            log.info("JWK set loaded with {} key(s)", keys);
+        } catch (KeySourceException e) {
+            log.warn("Unable to load the JWK set at startup", e);
+        }
+    }
+
+    private static final String OPENID_CONFIGURATION_PATH = "/.well-known/openid-configuration";
+    private static final int JWK_SET_SIZE_LIMIT = 50 * 1024;
+}
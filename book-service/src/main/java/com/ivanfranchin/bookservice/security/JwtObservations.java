@@ -0,0 +1,79 @@
+package com.ivanfranchin.bookservice.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ObservationAuthenticationManager;
+import org.springframework.security.authentication.ObservationReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Observes the authentication of bearer tokens, so that each one gets a timer and a span. The authentication manager
+ * set in {@link SecurityConfig} is not observed by Spring Security, as the ones it builds are, so it is wrapped here.
+ * Inside it, the decoding of the token, i.e. the signature verification and the claims validation, and its conversion
+ * into an authentication are observed on their own. Both only happen when the authentication is not found in
+ * {@link JwtAuthenticationCache}, so the count of {@code jwt.decode} compared with the count of authenticated requests
+ * gives the cache miss rate.
+ */
+@Component
+public class JwtObservations {
+
+    private final ObservationRegistry observationRegistry;
+
+    @Autowired
+    public JwtObservations(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this(observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    JwtObservations(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    public AuthenticationManager observed(AuthenticationManager authenticationManager) {
+        return new ObservationAuthenticationManager(observationRegistry, authenticationManager);
+    }
+
+    public ReactiveAuthenticationManager observed(ReactiveAuthenticationManager authenticationManager) {
+        return new ObservationReactiveAuthenticationManager(observationRegistry, authenticationManager);
+    }
+
+    public JwtDecoder observed(JwtDecoder jwtDecoder) {
+        return token -> observe(DECODE_OBSERVATION, "jwt decode", () -> jwtDecoder.decode(token));
+    }
+
+    public Converter<Jwt, AbstractAuthenticationToken> observed(Converter<Jwt, AbstractAuthenticationToken> jwtAuthConverter) {
+        return jwt -> observe(CONVERT_OBSERVATION, "jwt convert", () -> jwtAuthConverter.convert(jwt));
+    }
+
+    private <T> T observe(String name, String contextualName, Supplier<T> supplier) {
+        Observation observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(contextualName)
+                .lowCardinalityKeyValue(OUTCOME_KEY, OUTCOME_FAILURE)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = supplier.get();
+            observation.lowCardinalityKeyValue(OUTCOME_KEY, OUTCOME_SUCCESS);
+            return result;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    static final String DECODE_OBSERVATION = "jwt.decode";
+    static final String CONVERT_OBSERVATION = "jwt.convert";
+    private static final String OUTCOME_KEY = "outcome";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+}
@@ -0,0 +1,53 @@
+package com.ivanfranchin.bookservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import static com.ivanfranchin.bookservice.security.SecurityConfig.MANAGE_BOOKS;
+import static com.ivanfranchin.bookservice.security.SecurityConfig.READ_METRICS;
+
+/**
+ * WebFlux counterpart of {@link SecurityConfig}, active when the application runs with the {@code reactive} profile.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Configuration
+public class ReactiveSecurityConfig {
+
+    private final JwtAuthConverter jwtAuthConverter;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+    private final JwtObservations jwtObservations;
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder reactiveJwtDecoder) {
+        return http
+                .authorizeExchange(authorizeExchange -> authorizeExchange
+                        .pathMatchers(HttpMethod.GET, "/api/books", "/api/books/**", "/api/authors", "/api/authors/**").permitAll()
+                        .pathMatchers("/api/books", "/api/books/**", "/api/authors/**").hasRole(MANAGE_BOOKS)
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/metrics", "/actuator/metrics/**", "/actuator/prometheus").hasRole(READ_METRICS)
+                        .anyExchange().authenticated())
+                .oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(
+                        jwt -> jwt.authenticationManager(jwtAuthenticationManager(reactiveJwtDecoder))))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .cors(ServerHttpSecurity.CorsSpec::disable)
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .build();
+    }
+
+    private ReactiveAuthenticationManager jwtAuthenticationManager(ReactiveJwtDecoder reactiveJwtDecoder) {
+        JwtReactiveAuthenticationManager jwtAuthenticationManager = new JwtReactiveAuthenticationManager(reactiveJwtDecoder);
+        jwtAuthenticationManager.setJwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(jwtObservations.observed(jwtAuthConverter)));
+        return jwtObservations.observed(new CachingReactiveJwtAuthenticationManager(jwtAuthenticationManager, jwtAuthenticationCache));
+    }
+}
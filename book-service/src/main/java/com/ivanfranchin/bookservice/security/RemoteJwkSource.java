@@ -0,0 +1,78 @@
+package com.ivanfranchin.bookservice.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.ResourceRetriever;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * JWK set fetched from the authorization server and kept in memory. It is refreshed in the background before it
+ * expires, and the last known keys keep being used while the server can't be reached. The JWK set URL is resolved on
+ * first use, and again on the next one if that fails, as it may come from the OpenID Connect discovery.
+ */
+public class RemoteJwkSource implements JWKSource<SecurityContext>, Closeable {
+
+    private final Callable<URL> jwkSetUrlResolver;
+    private final ResourceRetriever resourceRetriever;
+    private final JwksProperties jwksProperties;
+
+    private volatile JWKSource<SecurityContext> jwkSource;
+
+    public RemoteJwkSource(Callable<URL> jwkSetUrlResolver, ResourceRetriever resourceRetriever, JwksProperties jwksProperties) {
+        this.jwkSetUrlResolver = jwkSetUrlResolver;
+        this.resourceRetriever = resourceRetriever;
+        this.jwksProperties = jwksProperties;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        return jwkSource().get(jwkSelector, context);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (jwkSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private JWKSource<SecurityContext> jwkSource() throws KeySourceException {
+        JWKSource<SecurityContext> source = jwkSource;
+        if (source == null) {
+            synchronized (this) {
+                if (jwkSource == null) {
+                    jwkSource = build(resolveJwkSetUrl());
+                }
+                source = jwkSource;
+            }
+        }
+        return source;
+    }
+
+    private URL resolveJwkSetUrl() throws KeySourceException {
+        try {
+            return jwkSetUrlResolver.call();
+        } catch (Exception e) {
+            throw new KeySourceException("Unable to resolve the JWK set URL", e);
+        }
+    }
+
+    private JWKSource<SecurityContext> build(URL jwkSetUrl) {
+        long refreshTimeout = jwksProperties.getConnectTimeout().plus(jwksProperties.getReadTimeout()).toMillis();
+        return JWKSourceBuilder.<SecurityContext>create(jwkSetUrl, resourceRetriever)
+                .cache(jwksProperties.getCacheTimeToLive().toMillis(), refreshTimeout)
+                .refreshAheadCache(jwksProperties.getRefreshAheadTime().toMillis(), true)
+                .outageTolerant(jwksProperties.getOutageTolerance().toMillis())
+                .retrying(true)
+                .build();
+    }
+}
@@ -1,35 +1,53 @@
 package com.ivanfranchin.bookservice.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.web.SecurityFilterChain;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @Configuration
 public class SecurityConfig {
 
     private final JwtAuthConverter jwtAuthConverter;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
+    private final JwtObservations jwtObservations;
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         return http
                 .authorizeHttpRequests(authorizeHttpRequests -> authorizeHttpRequests
-                        .requestMatchers(HttpMethod.GET, "/api/books", "/api/books/**").permitAll()
-                        .requestMatchers("/api/books", "/api/books/**").hasRole(MANAGE_BOOKS)
+                        .requestMatchers(HttpMethod.GET, "/api/books", "/api/books/**", "/api/authors", "/api/authors/**").permitAll()
+                        .requestMatchers("/api/books", "/api/books/**", "/api/authors/**").hasRole(MANAGE_BOOKS)
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**", "/actuator/prometheus").hasRole(READ_METRICS)
                         .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated())
                 .oauth2ResourceServer(oauth2ResourceServer -> oauth2ResourceServer.jwt(
-                        jwt -> jwt.jwtAuthenticationConverter(jwtAuthConverter)))
+                        jwt -> jwt.authenticationManager(jwtAuthenticationManager(jwtDecoder))))
                 .sessionManagement(sessionManagement -> sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(AbstractHttpConfigurer::disable)
                 .csrf(AbstractHttpConfigurer::disable)
                 .build();
     }
 
-    private static final String MANAGE_BOOKS = "manage_books";
+    private AuthenticationManager jwtAuthenticationManager(JwtDecoder jwtDecoder) {
+        JwtAuthenticationProvider jwtAuthenticationProvider = new JwtAuthenticationProvider(jwtDecoder);
+        jwtAuthenticationProvider.setJwtAuthenticationConverter(jwtObservations.observed(jwtAuthConverter));
+        return jwtObservations.observed(
+                new CachingJwtAuthenticationManager(new ProviderManager(jwtAuthenticationProvider), jwtAuthenticationCache));
+    }
+
+    static final String MANAGE_BOOKS = "manage_books";
+    static final String READ_METRICS = "read_metrics";
 }
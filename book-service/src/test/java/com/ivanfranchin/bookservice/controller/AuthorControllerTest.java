@@ -0,0 +1,122 @@
+package com.ivanfranchin.bookservice.controller;
+
+import com.ivanfranchin.bookservice.book.AuthorController;
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.exception.AuthorNotFoundException;
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.security.JwtAuthCacheProperties;
+import com.ivanfranchin.bookservice.security.JwtAuthConverterProperties;
+import com.ivanfranchin.bookservice.security.JwtAuthenticationCache;
+import com.ivanfranchin.bookservice.security.JwtObservations;
+import com.ivanfranchin.bookservice.security.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AuthorController.class)
+@Import({JwtAuthConverterProperties.class, JwtAuthCacheProperties.class, JwtAuthenticationCache.class, JwtObservations.class, SecurityConfig.class, BookProperties.class})
+class AuthorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthorService authorService;
+
+    @Test
+    void testGetAuthorsByNamePrefix() throws Exception {
+        Author author = getDefaultAuthor();
+        given(authorService.getAuthors("ivan")).willReturn(List.of(author));
+
+        ResultActions resultActions = mockMvc.perform(get(API_AUTHORS_URL).param("namePrefix", "ivan"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].authorName", is(author.getAuthorName())))
+                .andExpect(jsonPath("$[0].bookCount", is(3)))
+                .andExpect(jsonPath("$[0].minPrice", is(author.getMinPrice().doubleValue())))
+                .andExpect(jsonPath("$[0].maxPrice", is(author.getMaxPrice().doubleValue())));
+    }
+
+    @Test
+    void testGetAuthorWhenExistent() throws Exception {
+        Author author = getDefaultAuthor();
+        given(authorService.validateAndGetAuthor("Ivan Franchin")).willReturn(author);
+
+        ResultActions resultActions = mockMvc.perform(get(API_AUTHORS_NAME_URL, "Ivan Franchin"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.authorName", is(author.getAuthorName())))
+                .andExpect(jsonPath("$.bookCount", is(3)));
+    }
+
+    @Test
+    void testGetAuthorWhenNonExistent() throws Exception {
+        willThrow(AuthorNotFoundException.class).given(authorService).validateAndGetAuthor(anyString());
+
+        ResultActions resultActions = mockMvc.perform(get(API_AUTHORS_NAME_URL, "Ivan Franchin"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = FAKE_ROLE)
+    void testRebuildAuthorsUsingInvalidRoles() throws Exception {
+        ResultActions resultActions = mockMvc.perform(post(API_AUTHORS_REBUILD_URL))
+                .andDo(print());
+
+        resultActions.andExpect(status().isForbidden());
+        then(authorService).should(never()).rebuildAuthors();
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testRebuildAuthors() throws Exception {
+        given(authorService.rebuildAuthors()).willReturn(1L);
+
+        ResultActions resultActions = mockMvc.perform(post(API_AUTHORS_REBUILD_URL))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNoContent());
+        then(authorService).should().rebuildAuthors();
+    }
+
+    private Author getDefaultAuthor() {
+        return new Author("ivan franchin", "Ivan Franchin", 3, BigDecimal.valueOf(9.99), BigDecimal.valueOf(29.99));
+    }
+
+    private static final String MANAGE_BOOKS = "manage_books";
+    private static final String FAKE_ROLE = "fake_role";
+
+    private static final String API_AUTHORS_URL = "/api/authors";
+    private static final String API_AUTHORS_NAME_URL = "/api/authors/{authorName}";
+    private static final String API_AUTHORS_REBUILD_URL = "/api/authors/rebuild";
+}
@@ -1,45 +1,82 @@
 package com.ivanfranchin.bookservice.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ivanfranchin.bookservice.book.BookBatchService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
 import com.ivanfranchin.bookservice.book.BookController;
+import com.ivanfranchin.bookservice.book.BookMediaTypes;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse;
+import com.ivanfranchin.bookservice.book.dto.BookResponse;
 import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookBatchRequest;
 import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
 import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.exception.BookPreconditionFailedException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookCursorException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookSortException;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.ivanfranchin.bookservice.security.JwtAuthCacheProperties;
 import com.ivanfranchin.bookservice.security.JwtAuthConverterProperties;
+import com.ivanfranchin.bookservice.security.JwtAuthenticationCache;
+import com.ivanfranchin.bookservice.security.JwtObservations;
 import com.ivanfranchin.bookservice.security.SecurityConfig;
 import com.ivanfranchin.bookservice.book.BookService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookController.class)
-@Import({JwtAuthConverterProperties.class, SecurityConfig.class})
+@Import({JwtAuthConverterProperties.class, JwtAuthCacheProperties.class, JwtAuthenticationCache.class, JwtObservations.class, SecurityConfig.class, BookProperties.class})
 class BookControllerTest {
 
     @Autowired
@@ -48,12 +85,18 @@ class BookControllerTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private BookBatchService bookBatchService;
+
+    @MockitoBean
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testGetBooksWhenThereIsNone() throws Exception {
-        given(bookService.getBooks()).willReturn(Collections.emptyList());
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(Collections.emptyList());
 
         ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL))
                 .andDo(print());
@@ -65,8 +108,8 @@ class BookControllerTest {
 
     @Test
     void testGetBooksWhenThereIsOne() throws Exception {
-        Book book = getDefaultBook();
-        given(bookService.getBooks()).willReturn(Collections.singletonList(book));
+        BookView book = getDefaultBookView(0L);
+        given(bookService.getBooks(BookFilter.none(), List.of("id", "authorName", "title", "price"))).willReturn(Collections.singletonList(book));
 
         ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL))
                 .andDo(print());
@@ -74,10 +117,339 @@ class BookControllerTest {
         resultActions.andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath(JSON_$, hasSize(1)))
-                .andExpect(jsonPath(JSON_$_0_ID, is(book.getId())))
-                .andExpect(jsonPath(JSON_$_0_AUTHOR_NAME, is(book.getAuthorName())))
-                .andExpect(jsonPath(JSON_$_0_TITLE, is(book.getTitle())))
-                .andExpect(jsonPath(JSON_$_0_PRICE, is(book.getPrice().doubleValue())));
+                .andExpect(jsonPath(JSON_$_0_ID, is(book.id())))
+                .andExpect(jsonPath(JSON_$_0_AUTHOR_NAME, is(book.authorName())))
+                .andExpect(jsonPath(JSON_$_0_TITLE, is(book.title())))
+                .andExpect(jsonPath(JSON_$_0_PRICE, is(book.price().doubleValue())));
+    }
+
+    @Test
+    void testGetBooksInformingFields() throws Exception {
+        BookView book = new BookView("123", null, "SpringBoot", null, 0L);
+        given(bookService.getBooks(new BookFilter("Ivan", null, null, null, null), List.of("id", "title"))).willReturn(Collections.singletonList(book));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).param("authorName", "Ivan").param("fields", "title, id"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)))
+                .andExpect(jsonPath(JSON_$_0_ID, is(book.id())))
+                .andExpect(jsonPath(JSON_$_0_TITLE, is(book.title())))
+                .andExpect(jsonPath(JSON_$_0_AUTHOR_NAME).doesNotExist())
+                .andExpect(jsonPath(JSON_$_0_PRICE).doesNotExist());
+    }
+
+    @Test
+    void testGetBooksInformingInvalidFields() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).param("fields", "title,normalizedAuthorName"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isBadRequest());
+        then(bookService).should(never()).getBooks(any(BookFilter.class), anyList());
+    }
+
+    @Test
+    void testGetBooksInformingFiltersAndSort() throws Exception {
+        BookFilter bookFilter = new BookFilter(null, "Spring", new BigDecimal("10"), new BigDecimal("50.5"), "-price");
+        given(bookService.getBooks(bookFilter, List.of("id", "authorName", "title", "price"))).willReturn(List.of(getDefaultBookView(0L)));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL)
+                        .param("titlePrefix", "Spring")
+                        .param("minPrice", "10")
+                        .param("maxPrice", "50.5")
+                        .param("sort", "-price"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)));
+    }
+
+    @Test
+    void testGetBooksInformingNegativePrice() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).param("minPrice", "-1"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksInformingInvalidSort() throws Exception {
+        willThrow(InvalidBookSortException.class).given(bookService).getBooks(any(BookFilter.class), anyList());
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).param("sort", "updatedAt"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksETagChangesWithFields() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+        String eTag = mockMvc.perform(get(API_BOOKS_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).param("fields", "title").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)));
+    }
+
+    @Test
+    void testGetBooksPageWhenThereIsNextPage() throws Exception {
+        Book book = getDefaultBook();
+        given(bookService.getBooks(isNull(), any())).willReturn(new BookPage(Collections.singletonList(book), "abc"));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_PAGE_URL).param("size", "1"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath(JSON_$_CONTENT, hasSize(1)))
+                .andExpect(jsonPath(JSON_$_CONTENT_0_ID, is(book.getId())))
+                .andExpect(jsonPath(JSON_$_NEXT, is("abc")));
+    }
+
+    @Test
+    void testGetBooksPageWhenThereIsNoNextPage() throws Exception {
+        given(bookService.getBooks(anyString(), any())).willReturn(new BookPage(Collections.emptyList(), null));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_PAGE_URL).param("cursor", "abc"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$_CONTENT, hasSize(0)))
+                .andExpect(jsonPath(JSON_$_NEXT, nullValue()));
+    }
+
+    @Test
+    void testGetBooksPageInformingInvalidCursor() throws Exception {
+        willThrow(InvalidBookCursorException.class).given(bookService).getBooks(anyString(), any());
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_PAGE_URL).param("cursor", "%%%"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetBooksPageInformingInvalidSize() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_PAGE_URL).param("size", "0"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportBooks() throws Exception {
+        Book book1 = getDefaultBook();
+        Book book2 = new Book("456", "Ivan Franchin", "Java 21", BigDecimal.valueOf(9.99));
+        given(bookService.streamBooks()).willReturn(Stream.of(book1, book2));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_BOOKS_EXPORT_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":\"123\",\"authorName\":\"Ivan Franchin\",\"title\":\"SpringBoot\",\"price\":29.99}\n" +
+                                "{\"id\":\"456\",\"authorName\":\"Ivan Franchin\",\"title\":\"Java 21\",\"price\":9.99}\n"));
+    }
+
+    @Test
+    void testExportBooksHasATimeoutOfItsOwn() throws Exception {
+        given(bookService.streamBooks()).willReturn(Stream.empty());
+
+        MvcResult mvcResult = mockMvc.perform(get(API_BOOKS_EXPORT_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(mvcResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    void testExportBooksAsSmile() throws Exception {
+        Book book1 = getDefaultBook();
+        Book book2 = new Book("456", "Ivan Franchin", "Java 21", BigDecimal.valueOf(9.99));
+        given(bookService.streamBooks()).willReturn(Stream.of(book1, book2));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_BOOKS_EXPORT_URL).header(HttpHeaders.ACCEPT, BookMediaTypes.APPLICATION_SMILE_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BookMediaTypes.APPLICATION_SMILE));
+
+        byte[] content = resultActions.andReturn().getResponse().getContentAsByteArray();
+        try (MappingIterator<BookResponse> bookResponses = new ObjectMapper(new SmileFactory()).readerFor(BookResponse.class).readValues(content)) {
+            assertThat(bookResponses.readAll()).containsExactly(BookResponse.from(book1), BookResponse.from(book2));
+        }
+    }
+
+    @Test
+    void testExportBooksAsCborSequence() throws Exception {
+        Book book = getDefaultBook();
+        given(bookService.streamBooks()).willReturn(Stream.of(book));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_BOOKS_EXPORT_URL).header(HttpHeaders.ACCEPT, BookMediaTypes.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BookMediaTypes.APPLICATION_CBOR_SEQ));
+
+        byte[] content = resultActions.andReturn().getResponse().getContentAsByteArray();
+        try (MappingIterator<BookResponse> bookResponses = new ObjectMapper(new CBORFactory()).readerFor(BookResponse.class).readValues(content)) {
+            assertThat(bookResponses.readAll()).containsExactly(BookResponse.from(book));
+        }
+    }
+
+    @Test
+    void testExportBooksPrefersTheFormatOfHighestQuality() throws Exception {
+        given(bookService.streamBooks()).willReturn(Stream.of(getDefaultBook()));
+
+        MvcResult mvcResult = mockMvc.perform(get(API_BOOKS_EXPORT_URL)
+                        .header(HttpHeaders.ACCEPT, BookMediaTypes.APPLICATION_CBOR_SEQ_VALUE + ";q=0.1, " + MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void testExportBooksWhenAcceptIsMalformed() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_EXPORT_URL).header(HttpHeaders.ACCEPT, MALFORMED_ACCEPT))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotAcceptable());
+        then(bookService).should(never()).streamBooks();
+    }
+
+    @Test
+    void testGetBooksAsCbor() throws Exception {
+        BookView book = getDefaultBookView(0L);
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(book));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        byte[] content = resultActions.andReturn().getResponse().getContentAsByteArray();
+        BookResponse[] bookResponses = new ObjectMapper(new CBORFactory()).readValue(content, BookResponse[].class);
+        assertThat(bookResponses).containsExactly(BookResponse.from(book));
+    }
+
+    @Test
+    void testGetBooksFromCatalogueSnapshot() throws Exception {
+        BookCatalogueSnapshot.Snapshot snapshot = getDefaultSnapshot();
+        given(bookCatalogueSnapshot.get()).willReturn(snapshot);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.eTag()))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(snapshot.json()));
+        then(bookService).should(never()).getBooks(any(BookFilter.class), anyList());
+    }
+
+    @Test
+    void testGetBooksFromCatalogueSnapshotWhenGzipIsAccepted() throws Exception {
+        BookCatalogueSnapshot.Snapshot snapshot = getDefaultSnapshot();
+        given(bookCatalogueSnapshot.get()).willReturn(snapshot);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(content().bytes(snapshot.gzippedJson()));
+    }
+
+    @Test
+    void testGetBooksInformingFiltersSkipsCatalogueSnapshot() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+
+        mockMvc.perform(get(API_BOOKS_URL).param("authorName", "ivan"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)));
+
+        then(bookCatalogueSnapshot).should(never()).get();
+    }
+
+    @Test
+    void testGetBooksAsSmileSkipsCatalogueSnapshot() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+
+        mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.ACCEPT, BookMediaTypes.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BookMediaTypes.APPLICATION_SMILE));
+
+        then(bookCatalogueSnapshot).should(never()).get();
+    }
+
+    @Test
+    void testGetBooksWhenJsonIsRefusedSkipsCatalogueSnapshot() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+
+        mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE + ";q=0, " + MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        then(bookCatalogueSnapshot).should(never()).get();
+    }
+
+    @Test
+    void testGetBooksWhenAcceptIsMalformed() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.ACCEPT, MALFORMED_ACCEPT))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotAcceptable());
+        then(bookCatalogueSnapshot).should(never()).get();
+    }
+
+    @Test
+    void testGetBooksWhenNotModified() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+
+        String eTag = mockMvc.perform(get(API_BOOKS_URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public, stale-while-revalidate=30"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetBooksETagChangesWhenABookChanges() throws Exception {
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(0L)));
+        String eTag = mockMvc.perform(get(API_BOOKS_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        given(bookService.getBooks(any(BookFilter.class), anyList())).willReturn(List.of(getDefaultBookView(1L)));
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_URL).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)));
     }
 
     @Test
@@ -96,6 +468,75 @@ class BookControllerTest {
                 .andExpect(jsonPath(JSON_$_PRICE, is(book.getPrice().doubleValue())));
     }
 
+    @Test
+    void testGetBookByIdAsSmile() throws Exception {
+        Book book = getDefaultBook();
+        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_ID_URL, book.getId()).header(HttpHeaders.ACCEPT, BookMediaTypes.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BookMediaTypes.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        byte[] content = resultActions.andReturn().getResponse().getContentAsByteArray();
+        BookResponse bookResponse = new ObjectMapper(new SmileFactory()).readValue(content, BookResponse.class);
+        assertThat(bookResponse).isEqualTo(BookResponse.from(book));
+    }
+
+    @Test
+    void testGetBookByIdReturnsVersionAsETag() throws Exception {
+        Book book = getDefaultBook();
+        book.setVersion(3L);
+        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_ID_URL, book.getId()))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void testGetBookByIdReturnsLastModifiedAndCacheControl() throws Exception {
+        Book book = getDefaultBook();
+        book.setUpdatedAt(Instant.parse("2025-01-01T10:00:00Z"));
+        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_ID_URL, book.getId()))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jan 2025 10:00:00 GMT"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public, stale-while-revalidate=30"));
+    }
+
+    @Test
+    void testGetBookByIdWhenNotModifiedSince() throws Exception {
+        Book book = getDefaultBook();
+        book.setUpdatedAt(Instant.parse("2025-01-01T10:00:00Z"));
+        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_ID_URL, book.getId())
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2025 10:00:00 GMT"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetBookByIdWhenNotModified() throws Exception {
+        Book book = getDefaultBook();
+        book.setVersion(3L);
+        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(get(API_BOOKS_ID_URL, book.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print());
+
+        resultActions.andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(roles = MANAGE_BOOKS)
     void testCreateBook() throws Exception {
@@ -120,11 +561,10 @@ class BookControllerTest {
     @Test
     @WithMockUser(roles = MANAGE_BOOKS)
     void testUpdateBookWhenExistent() throws Exception {
-        Book book = getDefaultBook();
         UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", BigDecimal.valueOf(99.99));
+        Book book = new Book("123", "Ivan Franchin", updateBookRequest.title(), updateBookRequest.price());
 
-        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
-        given(bookService.saveBook(any(Book.class))).willReturn(book);
+        given(bookService.updateBook(anyString(), isNull(), any(UpdateBookRequest.class))).willReturn(book);
 
         ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_ID_URL, book.getId())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -144,7 +584,7 @@ class BookControllerTest {
     void testUpdateBookWhenNonExistent() throws Exception {
         UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "SpringBoot 2", null);
 
-        willThrow(BookNotFoundException.class).given(bookService).validateAndGetBookById(anyString());
+        willThrow(BookNotFoundException.class).given(bookService).updateBook(anyString(), isNull(), any(UpdateBookRequest.class));
 
         ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_ID_URL, "123")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -154,13 +594,63 @@ class BookControllerTest {
         resultActions.andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testUpdateBookWithIfMatch() throws Exception {
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", null);
+        Book book = new Book("123", "Ivan Franchin", updateBookRequest.title(), BigDecimal.valueOf(29.99));
+        book.setVersion(4L);
+
+        given(bookService.updateBook(eq(book.getId()), eq(3L), any(UpdateBookRequest.class))).willReturn(book);
+
+        ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_ID_URL, book.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookRequest)))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath(JSON_$_TITLE, is(updateBookRequest.title())));
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testUpdateBookWhenVersionDoesNotMatch() throws Exception {
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", null);
+
+        willThrow(BookPreconditionFailedException.class).given(bookService).updateBook(anyString(), eq(3L), any(UpdateBookRequest.class));
+
+        ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_ID_URL, "123")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookRequest)))
+                .andDo(print());
+
+        resultActions.andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testUpdateBookWithWeakIfMatch() throws Exception {
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", null);
+
+        ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_ID_URL, "123")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookRequest)))
+                .andDo(print());
+
+        resultActions.andExpect(status().isPreconditionFailed());
+        then(bookService).shouldHaveNoInteractions();
+    }
+
     @Test
     @WithMockUser(roles = MANAGE_BOOKS)
     void testDeleteBookWhenExistent() throws Exception {
         Book book = getDefaultBook();
 
-        given(bookService.validateAndGetBookById(anyString())).willReturn(book);
-        willDoNothing().given(bookService).deleteBook(any(Book.class));
+        given(bookService.deleteBook(anyString(), isNull())).willReturn(book);
 
         ResultActions resultActions = mockMvc.perform(delete(API_BOOKS_ID_URL, book.getId()))
                 .andDo(print());
@@ -176,7 +666,7 @@ class BookControllerTest {
     @Test
     @WithMockUser(roles = MANAGE_BOOKS)
     void testDeleteBookWhenNonExistent() throws Exception {
-        willThrow(BookNotFoundException.class).given(bookService).validateAndGetBookById(anyString());
+        willThrow(BookNotFoundException.class).given(bookService).deleteBook(anyString(), isNull());
 
         ResultActions resultActions = mockMvc.perform(delete(API_BOOKS_ID_URL, "123"))
                 .andDo(print());
@@ -184,6 +674,18 @@ class BookControllerTest {
         resultActions.andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testDeleteBookWhenVersionDoesNotMatch() throws Exception {
+        willThrow(BookPreconditionFailedException.class).given(bookService).deleteBook(anyString(), eq(3L));
+
+        ResultActions resultActions = mockMvc.perform(delete(API_BOOKS_ID_URL, "123")
+                        .header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andDo(print());
+
+        resultActions.andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser(roles = FAKE_ROLE)
     void testCreateBookUsingInvalidRoles() throws Exception {
@@ -219,15 +721,100 @@ class BookControllerTest {
         resultActions.andExpect(status().isForbidden());
     }
 
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testCreateBooks() throws Exception {
+        List<CreateBookRequest> createBookRequests = List.of(
+                new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99)),
+                new CreateBookRequest("", "Java 21", BigDecimal.valueOf(9.99)));
+        given(bookBatchService.createBooks(anyList(), eq(false))).willReturn(List.of(
+                new BookBatchItemResponse(0, "123", BookBatchItemResponse.Status.CREATED, null),
+                new BookBatchItemResponse(1, null, BookBatchItemResponse.Status.INVALID, "authorName: must not be blank")));
+
+        ResultActions resultActions = mockMvc.perform(post(API_BOOKS_BATCH_URL)
+                        .param("ordered", "false")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookRequests)))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath(JSON_$, hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is("123")))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("INVALID")))
+                .andExpect(jsonPath("$[1].error", is("authorName: must not be blank")));
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testUpdateBooks() throws Exception {
+        List<UpdateBookBatchRequest> updateBookBatchRequests = List.of(new UpdateBookBatchRequest("123", null, "Java 9", null));
+        given(bookBatchService.updateBooks(anyList(), eq(true))).willReturn(List.of(
+                new BookBatchItemResponse(0, "123", BookBatchItemResponse.Status.UPDATED, null)));
+
+        ResultActions resultActions = mockMvc.perform(patch(API_BOOKS_BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookBatchRequests)))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(1)))
+                .andExpect(jsonPath("$[0].status", is("UPDATED")));
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testDeleteBooks() throws Exception {
+        given(bookBatchService.deleteBooks(anyList(), anyBoolean())).willReturn(List.of(
+                new BookBatchItemResponse(0, "123", BookBatchItemResponse.Status.DELETED, null),
+                new BookBatchItemResponse(1, "456", BookBatchItemResponse.Status.NOT_FOUND, null)));
+
+        ResultActions resultActions = mockMvc.perform(delete(API_BOOKS_BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of("123", "456"))))
+                .andDo(print());
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_$, hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("DELETED")))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+    }
+
+    @Test
+    @WithMockUser(roles = FAKE_ROLE)
+    void testCreateBooksUsingInvalidRoles() throws Exception {
+        ResultActions resultActions = mockMvc.perform(post(API_BOOKS_BATCH_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print());
+
+        resultActions.andExpect(status().isForbidden());
+    }
+
     private Book getDefaultBook() {
         return new Book("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
     }
 
+    private BookCatalogueSnapshot.Snapshot getDefaultSnapshot() {
+        byte[] json = "[{\"id\":\"123\",\"authorName\":\"Ivan Franchin\",\"title\":\"SpringBoot\",\"price\":29.99}]".getBytes(StandardCharsets.UTF_8);
+        byte[] gzippedJson = {31, -117, 8, 0, 0, 0, 0, 0, 0, -1};
+        return new BookCatalogueSnapshot.Snapshot(1L, "W/\"abc\"", json, gzippedJson);
+    }
+
+    private BookView getDefaultBookView(Long version) {
+        return new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), version);
+    }
+
     private static final String MANAGE_BOOKS = "manage_books";
     private static final String FAKE_ROLE = "fake_role";
 
     private static final String API_BOOKS_URL = "/api/books";
     private static final String API_BOOKS_ID_URL = "/api/books/{id}";
+    private static final String API_BOOKS_PAGE_URL = "/api/books/page";
+    private static final String API_BOOKS_EXPORT_URL = "/api/books/export";
+    private static final String MALFORMED_ACCEPT = "application/json;q=high";
+    private static final String API_BOOKS_BATCH_URL = "/api/books/batch";
 
     private static final String JSON_$ = "$";
 
@@ -240,4 +827,8 @@ class BookControllerTest {
     private static final String JSON_$_0_AUTHOR_NAME = "$[0].authorName";
     private static final String JSON_$_0_TITLE = "$[0].title";
     private static final String JSON_$_0_PRICE = "$[0].price";
+
+    private static final String JSON_$_CONTENT = "$.content";
+    private static final String JSON_$_CONTENT_0_ID = "$.content[0].id";
+    private static final String JSON_$_NEXT = "$.next";
 }
\ No newline at end of file
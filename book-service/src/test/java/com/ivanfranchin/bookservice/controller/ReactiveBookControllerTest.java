@@ -0,0 +1,233 @@
+package com.ivanfranchin.bookservice.controller;
+
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.ReactiveBookController;
+import com.ivanfranchin.bookservice.book.ReactiveBookService;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import com.ivanfranchin.bookservice.security.JwtAuthCacheProperties;
+import com.ivanfranchin.bookservice.security.JwtAuthConverterProperties;
+import com.ivanfranchin.bookservice.security.JwtAuthenticationCache;
+import com.ivanfranchin.bookservice.security.JwtObservations;
+import com.ivanfranchin.bookservice.security.ReactiveSecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest(ReactiveBookController.class)
+@Import({JwtAuthConverterProperties.class, JwtAuthCacheProperties.class, JwtAuthenticationCache.class, JwtObservations.class, ReactiveSecurityConfig.class, BookProperties.class})
+class ReactiveBookControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveBookService reactiveBookService;
+
+    @Test
+    void testGetBooksWhenThereIsOne() {
+        BookView book = new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L);
+        given(reactiveBookService.getBooks(BookFilter.none(), List.of("id", "authorName", "title", "price"))).willReturn(Flux.just(book));
+
+        webTestClient.get().uri(API_BOOKS_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(book.id())
+                .jsonPath("$[0].authorName").isEqualTo(book.authorName())
+                .jsonPath("$[0].title").isEqualTo(book.title())
+                .jsonPath("$[0].price").isEqualTo(book.price().doubleValue());
+    }
+
+    @Test
+    void testGetBooksReturnsWeakETagAndCacheHeaders() {
+        BookView book = new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L);
+        given(reactiveBookService.getBooks(BookFilter.none(), List.of("id", "authorName", "title", "price"))).willReturn(Flux.just(book));
+
+        webTestClient.get().uri(API_BOOKS_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, eTag -> assertThat(eTag).startsWith("W/\""))
+                .expectHeader().exists(HttpHeaders.CACHE_CONTROL)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void testGetBooksWhenNotModified() {
+        BookView book = new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L);
+        given(reactiveBookService.getBooks(BookFilter.none(), List.of("id", "authorName", "title", "price"))).willReturn(Flux.just(book));
+
+        String eTag = webTestClient.get().uri(API_BOOKS_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri(API_BOOKS_URL)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+    }
+
+    @Test
+    void testGetBooksInformingFields() {
+        BookView book = new BookView("123", null, null, BigDecimal.valueOf(29.99), 0L);
+        given(reactiveBookService.getBooks(BookFilter.none(), List.of("id", "price"))).willReturn(Flux.just(book));
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path(API_BOOKS_URL).queryParam("fields", "price").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(book.id())
+                .jsonPath("$[0].price").isEqualTo(book.price().doubleValue())
+                .jsonPath("$[0].authorName").doesNotExist()
+                .jsonPath("$[0].title").doesNotExist();
+    }
+
+    @Test
+    void testGetBooksInformingInvalidFields() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path(API_BOOKS_URL).queryParam("fields", "version").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testExportBooks() {
+        Book book = getDefaultBook();
+        given(reactiveBookService.streamBooks()).willReturn(Flux.just(book));
+
+        webTestClient.get().uri(API_BOOKS_EXPORT_URL)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .isEqualTo("{\"id\":\"123\",\"authorName\":\"Ivan Franchin\",\"title\":\"SpringBoot\",\"price\":29.99}\n");
+    }
+
+    @Test
+    void testGetBookByIdWhenNotModified() {
+        Book book = getDefaultBook();
+        book.setVersion(3L);
+        given(reactiveBookService.validateAndGetBookById(anyString())).willReturn(Mono.just(book));
+
+        webTestClient.get().uri(API_BOOKS_ID_URL, book.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    void testGetBookByIdWhenNonExistent() {
+        given(reactiveBookService.validateAndGetBookById(anyString())).willReturn(Mono.error(new BookNotFoundException("123")));
+
+        webTestClient.get().uri(API_BOOKS_ID_URL, "123")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testCreateBook() {
+        CreateBookRequest createBookRequest = new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        Book book = getDefaultBook();
+        given(reactiveBookService.saveBook(any(Book.class))).willReturn(Mono.just(book));
+
+        webTestClient.post().uri(API_BOOKS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createBookRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(book.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testUpdateBookWhenExistent() {
+        Book book = getDefaultBook();
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", BigDecimal.valueOf(99.99));
+        given(reactiveBookService.updateBook(anyString(), isNull(), any(UpdateBookRequest.class)))
+                .willReturn(Mono.just(new Book(book.getId(), book.getAuthorName(), updateBookRequest.title(), updateBookRequest.price())));
+
+        webTestClient.patch().uri(API_BOOKS_ID_URL, book.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updateBookRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo(updateBookRequest.title())
+                .jsonPath("$.price").isEqualTo(updateBookRequest.price().doubleValue());
+    }
+
+    @Test
+    @WithMockUser(roles = MANAGE_BOOKS)
+    void testDeleteBookWhenExistent() {
+        Book book = getDefaultBook();
+        given(reactiveBookService.deleteBook(anyString(), isNull())).willReturn(Mono.just(book));
+
+        webTestClient.delete().uri(API_BOOKS_ID_URL, book.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(book.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = FAKE_ROLE)
+    void testCreateBookUsingInvalidRoles() {
+        CreateBookRequest createBookRequest = new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+
+        webTestClient.post().uri(API_BOOKS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createBookRequest)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void testCreateBookWithoutAuthentication() {
+        CreateBookRequest createBookRequest = new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+
+        webTestClient.post().uri(API_BOOKS_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createBookRequest)
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private Book getDefaultBook() {
+        return new Book("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+    }
+
+    private static final String MANAGE_BOOKS = "manage_books";
+    private static final String FAKE_ROLE = "fake_role";
+
+    private static final String API_BOOKS_URL = "/api/books";
+    private static final String API_BOOKS_ID_URL = "/api/books/{id}";
+    private static final String API_BOOKS_EXPORT_URL = "/api/books/export";
+}
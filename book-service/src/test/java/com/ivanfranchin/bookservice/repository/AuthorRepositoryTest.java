@@ -0,0 +1,184 @@
+package com.ivanfranchin.bookservice.repository;
+
+import com.ivanfranchin.bookservice.book.AuthorRepository;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+@DataMongoTest
+class AuthorRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:8.0.6");
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void testRebuildGroupsBooksByNormalizedAuthorName() {
+        bookRepository.saveAll(List.of(
+                new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")),
+                new Book("ivan franchin", "Java 21", new BigDecimal("9.99")),
+                new Book("Josh Long", "Reactive Spring", new BigDecimal("39.99"))));
+        authorRepository.save(new Author("nobody", "Nobody", 1, BigDecimal.ONE, BigDecimal.ONE));
+
+        authorRepository.rebuild();
+
+        List<Author> authors = authorRepository.findAllByOrderByIdAsc(Limit.of(10));
+        assertThat(authors).extracting(Author::getId).containsExactly("ivan franchin", "josh long");
+        Author author = authors.getFirst();
+        assertThat(author.getAuthorName()).isEqualTo("Ivan Franchin");
+        assertThat(author.getBookCount()).isEqualTo(2);
+        assertThat(author.getMinPrice()).isEqualByComparingTo("9.99");
+        assertThat(author.getMaxPrice()).isEqualByComparingTo("29.99");
+    }
+
+    @Test
+    void testRebuildLeavesOutBooksWithoutAuthorName() {
+        bookRepository.save(new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")));
+        mongoTemplate.insert(new Book(null, "Anonymous", new BigDecimal("5.00")));
+
+        authorRepository.rebuild();
+
+        assertThat(authorRepository.findAllByOrderByIdAsc(Limit.of(10))).extracting(Author::getId).containsExactly("ivan franchin");
+    }
+
+    @Test
+    void testRefreshUpdatesOnlyTheAuthorsInformed() {
+        bookRepository.saveAll(List.of(
+                new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")),
+                new Book("Josh Long", "Reactive Spring", new BigDecimal("39.99"))));
+
+        authorRepository.refresh(List.of("ivan franchin"));
+
+        assertThat(authorRepository.findAll()).extracting(Author::getId).containsExactly("ivan franchin");
+        assertThat(authorRepository.findById("ivan franchin")).get().extracting(Author::getBookCount).isEqualTo(1L);
+    }
+
+    @Test
+    void testRefreshRemovesTheAuthorsWithoutBooks() {
+        Book book = bookRepository.save(new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")));
+        authorRepository.refresh(List.of("ivan franchin"));
+
+        bookRepository.delete(book);
+        authorRepository.refresh(List.of("ivan franchin"));
+
+        Optional<Author> author = authorRepository.findById("ivan franchin");
+        assertThat(author).isNotPresent();
+    }
+
+    @Test
+    void testAddBooksAdjustsTheAuthorsWithoutReadingTheirBooks() {
+        authorRepository.save(new Author("ivan franchin", "ivan franchin", 1, new BigDecimal("19.99"), new BigDecimal("19.99")));
+
+        authorRepository.addBooks(List.of(
+                new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")),
+                new Book("Josh Long", "Reactive Spring", new BigDecimal("39.99"))));
+
+        Author author = authorRepository.findById("ivan franchin").orElseThrow();
+        assertThat(author.getAuthorName()).isEqualTo("Ivan Franchin");
+        assertThat(author.getBookCount()).isEqualTo(2);
+        assertThat(author.getMinPrice()).isEqualByComparingTo("19.99");
+        assertThat(author.getMaxPrice()).isEqualByComparingTo("29.99");
+        assertThat(authorRepository.findById("josh long")).get().extracting(Author::getBookCount).isEqualTo(1L);
+    }
+
+    @Test
+    void testChangePrice() {
+        authorRepository.save(new Author("ivan franchin", "Ivan Franchin", 3, new BigDecimal("9.99"), new BigDecimal("29.99")));
+
+        // From inside the range, the range only grows
+        assertThat(authorRepository.changePrice("ivan franchin", new BigDecimal("19.99"), new BigDecimal("39.99"))).isTrue();
+        assertThat(authorRepository.findById("ivan franchin")).get().extracting(Author::getMaxPrice)
+                .satisfies(maxPrice -> assertThat(maxPrice).isEqualByComparingTo("39.99"));
+
+        // The cheapest book getting more expensive may leave another minimum, so the author is left as it is
+        assertThat(authorRepository.changePrice("ivan franchin", new BigDecimal("9.99"), new BigDecimal("14.99"))).isFalse();
+        assertThat(authorRepository.findById("ivan franchin")).get().extracting(Author::getMinPrice)
+                .satisfies(minPrice -> assertThat(minPrice).isEqualByComparingTo("9.99"));
+    }
+
+    @Test
+    void testRefreshStoresTheAuthorsAtTheRevisionAfterTheOneItRead() {
+        bookRepository.save(new Book("Ivan Franchin", "SpringBoot", new BigDecimal("29.99")));
+        authorRepository.refresh(List.of("ivan franchin"));
+        Author author = authorRepository.findById("ivan franchin").orElseThrow();
+        assertThat(author.getRevision()).isEqualTo(1L);
+
+        // Written by an adjustment
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("ivan franchin")),
+                new Update().inc("revision", 1), Author.class);
+        authorRepository.refresh(List.of("ivan franchin"));
+
+        assertThat(authorRepository.findById("ivan franchin")).get().extracting(Author::getRevision).isEqualTo(3L);
+    }
+
+    @Test
+    void testFindByIdPrefix() {
+        authorRepository.saveAll(List.of(
+                new Author("ivan franchin", "Ivan Franchin", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new Author("ivo andric", "Ivo Andric", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new Author("josh long", "Josh Long", 1, BigDecimal.ONE, BigDecimal.ONE)));
+
+        List<Author> authors = authorRepository.findByIdPrefix("iv", "iw", Limit.of(10));
+
+        assertThat(authors).extracting(Author::getId).containsExactly("ivan franchin", "ivo andric");
+    }
+
+    // The upper bound of a prefix ending in U+FFFF is the prefix ending in U+10000, as MongoDB orders by code point
+    @Test
+    void testFindByIdPrefixComparesByCodePoint() {
+        authorRepository.saveAll(List.of(
+                new Author("ab\uE000", "ab\uE000", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new Author("ab\uFFFF", "ab\uFFFF", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new Author("ab\uD800\uDC00", "ab\uD800\uDC00", 1, BigDecimal.ONE, BigDecimal.ONE)));
+
+        List<Author> authors = authorRepository.findByIdPrefix("ab\uFFFF", "ab\uD800\uDC00", Limit.of(10));
+
+        assertThat(authors).extracting(Author::getId).containsExactly("ab\uFFFF");
+    }
+
+    @Test
+    void testFindByIdGreaterThanEqualOrderByIdAsc() {
+        authorRepository.saveAll(List.of(
+                new Author("ivan franchin", "Ivan Franchin", 1, BigDecimal.ONE, BigDecimal.ONE),
+                new Author("josh long", "Josh Long", 1, BigDecimal.ONE, BigDecimal.ONE)));
+
+        List<Author> authors = authorRepository.findByIdGreaterThanEqualOrderByIdAsc("j", Limit.of(10));
+
+        assertThat(authors).extracting(Author::getId).containsExactly("josh long");
+    }
+}
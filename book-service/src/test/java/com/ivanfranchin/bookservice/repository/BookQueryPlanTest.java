@@ -0,0 +1,169 @@
+package com.ivanfranchin.bookservice.repository;
+
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookService;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.assertj.core.api.SoftAssertions;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Runs every combination of the list filters and sorts, in both author search modes, and asks MongoDB for the plan of
+ * the find command actually sent, failing if any of them scans the whole collection.
+ */
+@Testcontainers
+@DataMongoTest
+@Import({BookService.class, AuthorService.class, BookProperties.class})
+class BookQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:8.0.6");
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookProperties bookProperties;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FindCommandRecorder findCommandRecorder;
+
+    @MockitoBean
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        bookRepository.saveAll(IntStream.range(0, 100)
+                .mapToObj(i -> new Book("Author " + i % 10, "Title " + i, BigDecimal.valueOf(10 + i, 1)))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookProperties.getAuthorSearch().setMode(BookProperties.AuthorSearch.Mode.PREFIX);
+    }
+
+    @Test
+    void testNoSupportedQueryScansTheCollection() {
+        SoftAssertions softly = new SoftAssertions();
+        for (BookProperties.AuthorSearch.Mode mode : BookProperties.AuthorSearch.Mode.values()) {
+            bookProperties.getAuthorSearch().setMode(mode);
+            for (BookFilter bookFilter : getFilterCombinations()) {
+                findCommandRecorder.clear();
+                bookService.getBooks(bookFilter, RESPONSE_FIELDS);
+
+                String winningPlan = explain(findCommandRecorder.getLastFind()).toJson();
+                softly.assertThat(winningPlan).as("winning plan of %s in %s mode", bookFilter, mode).doesNotContain(COLLSCAN);
+            }
+        }
+        softly.assertAll();
+    }
+
+    private Document explain(BsonDocument find) {
+        BsonDocument command = new BsonDocument("explain", find).append("verbosity", new BsonString("queryPlanner"));
+        Document explain = mongoTemplate.getDb().runCommand(command);
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    }
+
+    private List<BookFilter> getFilterCombinations() {
+        List<BookFilter> bookFilters = new ArrayList<>();
+        for (String authorName : Arrays.asList(null, "author 1")) {
+            for (String titlePrefix : Arrays.asList(null, "Title 1")) {
+                for (BigDecimal minPrice : Arrays.asList(null, BigDecimal.valueOf(2))) {
+                    for (BigDecimal maxPrice : Arrays.asList(null, BigDecimal.valueOf(8))) {
+                        for (String sort : SORTS) {
+                            bookFilters.add(new BookFilter(authorName, titlePrefix, minPrice, maxPrice, sort));
+                        }
+                    }
+                }
+            }
+        }
+        return bookFilters;
+    }
+
+    /**
+     * Keeps the find commands sent to the books collection, with only the parts that shape the plan.
+     */
+    static class FindCommandRecorder implements CommandListener {
+
+        private final List<BsonDocument> finds = new ArrayList<>();
+
+        @Override
+        public synchronized void commandStarted(CommandStartedEvent event) {
+            BsonDocument command = event.getCommand();
+            if (!"find".equals(event.getCommandName()) || !"books".equals(command.getString("find").getValue())) {
+                return;
+            }
+            // The command is only readable during the callback, so the parts needed are copied
+            BsonDocument find = new BsonDocument();
+            for (String key : List.of("find", "filter", "sort", "projection", "limit")) {
+                if (command.containsKey(key)) {
+                    find.append(key, command.get(key).clone());
+                }
+            }
+            finds.add(find);
+        }
+
+        synchronized BsonDocument getLastFind() {
+            return finds.getLast();
+        }
+
+        synchronized void clear() {
+            finds.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class FindCommandRecorderConfig {
+
+        @Bean
+        FindCommandRecorder findCommandRecorder() {
+            return new FindCommandRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer findCommandRecorderCustomizer(FindCommandRecorder findCommandRecorder) {
+            return settings -> settings.addCommandListener(findCommandRecorder);
+        }
+    }
+
+    private static final List<String> RESPONSE_FIELDS = List.of("id", "authorName", "title", "price");
+    private static final List<String> SORTS = Arrays.asList(null, "id", "-id", "authorName", "-authorName", "title", "-title", "price", "-price");
+    private static final String COLLSCAN = "\"COLLSCAN\"";
+}
@@ -1,20 +1,36 @@
 package com.ivanfranchin.bookservice.repository;
 
 import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookRepositoryCustom.BulkResult;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -71,12 +87,231 @@ class BookRepositoryTest {
     }
 
     @Test
-    void testFindByAuthorNameLikeWhenThereIsOne() {
+    void testFindByNormalizedAuthorNamePrefixWhenThereIsOne() {
         mongoTemplate.save(getDefaultBook());
+        mongoTemplate.save(new Book("Joshua Bloch", "Effective Java", BigDecimal.valueOf(45.5)));
 
-        List<Book> books = bookRepository.findByAuthorNameLike("Franchin");
+        List<Book> books = bookRepository.findByNormalizedAuthorNamePrefix("ivan", "ivao", Limit.of(10));
 
         assertThat(books).hasSize(1);
+        assertThat(books.getFirst().getAuthorName()).isEqualTo("Ivan Franchin");
+    }
+
+    @Test
+    void testFindByNormalizedAuthorNamePrefixIsAnchored() {
+        mongoTemplate.save(getDefaultBook());
+
+        List<Book> books = bookRepository.findByNormalizedAuthorNamePrefix("franchin", "franchio", Limit.of(10));
+
+        assertThat(books).isEmpty();
+    }
+
+    @Test
+    void testFindViewsByTextCriteriaWhenThereIsOne() {
+        mongoTemplate.save(getDefaultBook());
+        mongoTemplate.save(new Book("Joshua Bloch", "Effective Java", BigDecimal.valueOf(45.5)));
+
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching("Franchin")).limit(10);
+        List<BookView> books = bookRepository.findViews(query);
+
+        assertThat(books).hasSize(1);
+        assertThat(books.getFirst().authorName()).isEqualTo("Ivan Franchin");
+    }
+
+    @Test
+    void testFindViewsByNormalizedAuthorNameRange() {
+        mongoTemplate.save(new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99)));
+        mongoTemplate.save(new Book("ivan franchin", "Java 21", BigDecimal.valueOf(19.99)));
+        mongoTemplate.save(new Book("Joshua Bloch", "Effective Java", BigDecimal.valueOf(45.5)));
+
+        Query query = Query.query(Criteria.where("normalizedAuthorName").gte("ivan").lt("ivao"))
+                .with(Sort.by("normalizedAuthorName", "title"))
+                .limit(10);
+        List<BookView> books = bookRepository.findViews(query);
+
+        assertThat(books).extracting(BookView::title).containsExactly("Java 21", "SpringBoot");
+    }
+
+    @Test
+    void testFindViewsReadsOnlyProjectedFields() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Query query = new Query();
+        query.fields().include("id", "version", "title");
+        List<BookView> books = bookRepository.findViews(query);
+
+        assertThat(books).containsExactly(new BookView(book.getId(), null, "SpringBoot", null, 0L));
+    }
+
+    @Test
+    void testFindViewsReadsEveryFieldOfTheResponse() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Query query = new Query();
+        query.fields().include("id", "version", "authorName", "title", "price");
+        List<BookView> books = bookRepository.findViews(query);
+
+        assertThat(books).containsExactly(new BookView(book.getId(), "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L));
+    }
+
+    @Test
+    void testFindViewsRespectsSortAndLimit() {
+        Book book1 = mongoTemplate.save(getDefaultBook());
+        Book book2 = mongoTemplate.save(getDefaultBook());
+        mongoTemplate.save(getDefaultBook());
+
+        List<BookView> books = bookRepository.findViews(new Query().with(Sort.by("id")).limit(2));
+
+        assertThat(books).extracting(BookView::id).containsExactly(book1.getId(), book2.getId());
+    }
+
+    @Test
+    void testFindAllByOrderByIdAscRespectsLimit() {
+        mongoTemplate.save(getDefaultBook());
+        mongoTemplate.save(getDefaultBook());
+
+        List<Book> books = bookRepository.findAllByOrderByIdAsc(Limit.of(1));
+
+        assertThat(books).hasSize(1);
+    }
+
+    @Test
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        Book book1 = mongoTemplate.save(getDefaultBook());
+        Book book2 = mongoTemplate.save(getDefaultBook());
+        Book book3 = mongoTemplate.save(getDefaultBook());
+
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(book1.getId(), Limit.of(10));
+
+        assertThat(books).extracting(Book::getId).containsExactly(book2.getId(), book3.getId());
+    }
+
+    @Test
+    void testStreamAllBy() {
+        mongoTemplate.save(getDefaultBook());
+        mongoTemplate.save(getDefaultBook());
+
+        try (Stream<Book> books = bookRepository.streamAllBy()) {
+            assertThat(books).hasSize(2);
+        }
+    }
+
+    @Test
+    void testBulkInsertOrderedStopsAtFirstError() {
+        Book book1 = new Book("507f1f77bcf86cd799439011", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        Book duplicated = new Book("507f1f77bcf86cd799439011", "Ivan Franchin", "Java 8", BigDecimal.valueOf(9.99));
+        Book book2 = new Book("507f1f77bcf86cd799439012", "Ivan Franchin", "Java 21", BigDecimal.valueOf(19.99));
+
+        Map<Integer, String> errors = bookRepository.bulkInsert(List.of(book1, duplicated, book2), true);
+
+        assertThat(errors).containsOnlyKeys(1);
+        assertThat(bookRepository.findAll()).extracting(Book::getId).containsExactly(book1.getId());
+    }
+
+    @Test
+    void testBulkInsertUnorderedContinuesAfterError() {
+        Book book1 = new Book("507f1f77bcf86cd799439011", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        Book duplicated = new Book("507f1f77bcf86cd799439011", "Ivan Franchin", "Java 8", BigDecimal.valueOf(9.99));
+        Book book2 = new Book("507f1f77bcf86cd799439012", "Ivan Franchin", "Java 21", BigDecimal.valueOf(19.99));
+
+        Map<Integer, String> errors = bookRepository.bulkInsert(List.of(book1, duplicated, book2), false);
+
+        assertThat(errors).containsOnlyKeys(1);
+        assertThat(bookRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    void testBulkUpdateAndFindExistingIds() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Set<String> existingIds = bookRepository.findExistingIds(List.of(book.getId(), "507f1f77bcf86cd799439011"));
+        assertThat(existingIds).containsExactly(book.getId());
+
+        BulkResult bulkResult = bookRepository.bulkUpdate(
+                List.of(book.getId(), "507f1f77bcf86cd799439011"), Collections.nCopies(2, new Update().set("title", "Java 21")), true);
+        assertThat(bulkResult.errors()).isEmpty();
+        assertThat(bulkResult.matchedCount()).isEqualTo(1);
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getTitle).isEqualTo("Java 21");
+    }
+
+    @Test
+    void testBulkRemove() {
+        Book book1 = mongoTemplate.save(getDefaultBook());
+        Book book2 = mongoTemplate.save(getDefaultBook());
+
+        BulkResult bulkResult = bookRepository.bulkRemove(List.of(book1.getId(), book2.getId()), false);
+
+        assertThat(bulkResult.errors()).isEmpty();
+        assertThat(bulkResult.matchedCount()).isEqualTo(2);
+        assertThat(bookRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void testFindAndUpdateByIdSetsOnlyInformedFields() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Optional<BookChange> bookChange = bookRepository.findAndUpdateById(book.getId(), null, new Update().set("title", "Java 21"));
+
+        assertThat(bookChange).isPresent();
+        Book bookUpdated = bookChange.get().current();
+        assertThat(bookUpdated.getTitle()).isEqualTo("Java 21");
+        assertThat(bookUpdated.getAuthorName()).isEqualTo(book.getAuthorName());
+        assertThat(bookUpdated.getPrice()).isEqualTo(book.getPrice());
+        assertThat(bookChange.get().previous().getTitle()).isEqualTo(book.getTitle());
+    }
+
+    @Test
+    void testFindAndUpdateByIdWhenNonExistent() {
+        Optional<BookChange> bookChange = bookRepository.findAndUpdateById("507f1f77bcf86cd799439011", null, new Update().set("title", "Java 21"));
+
+        assertThat(bookChange).isNotPresent();
+    }
+
+    @Test
+    void testFindAndUpdateByIdIncrementsVersionAndSetsUpdatedAt() {
+        Book book = mongoTemplate.save(getDefaultBook());
+        assertThat(book.getVersion()).isZero();
+        assertThat(book.getUpdatedAt()).isNull();
+
+        Optional<BookChange> bookChange = bookRepository.findAndUpdateById(book.getId(), 0L, new Update().set("title", "Java 21"));
+
+        assertThat(bookChange).isPresent();
+        assertThat(bookChange.get().current().getVersion()).isEqualTo(1L);
+        assertThat(bookChange.get().current().getUpdatedAt()).isNotNull();
+        assertThat(bookChange.get().previous().getVersion()).isZero();
+        // The book computed from the previous one is the one stored
+        assertThat(bookRepository.findById(book.getId())).contains(bookChange.get().current());
+    }
+
+    @Test
+    void testFindAndUpdateByIdWhenVersionDoesNotMatch() {
+        Book book = mongoTemplate.save(getDefaultBook());
+        bookRepository.findAndUpdateById(book.getId(), 0L, new Update().set("title", "Java 21"));
+
+        Optional<BookChange> bookChange = bookRepository.findAndUpdateById(book.getId(), 0L, new Update().set("title", "Java 25"));
+
+        assertThat(bookChange).isNotPresent();
+        assertThat(bookRepository.findById(book.getId())).get().extracting(Book::getTitle).isEqualTo("Java 21");
+    }
+
+    @Test
+    void testFindAndRemoveById() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Optional<Book> bookRemoved = bookRepository.findAndRemoveById(book.getId(), null);
+
+        assertThat(bookRemoved).contains(book);
+        assertThat(bookRepository.findById(book.getId())).isNotPresent();
+    }
+
+    @Test
+    void testFindAndRemoveByIdWhenVersionDoesNotMatch() {
+        Book book = mongoTemplate.save(getDefaultBook());
+
+        Optional<Book> bookRemoved = bookRepository.findAndRemoveById(book.getId(), 1L);
+
+        assertThat(bookRemoved).isNotPresent();
+        assertThat(bookRepository.findById(book.getId())).isPresent();
     }
 
     @Test
@@ -113,6 +348,45 @@ class BookRepositoryTest {
         assertThat(bookOptional.get().getPrice()).isEqualTo(book.getPrice());
     }
 
+    @Test
+    void testConvertStringPricesBringsLegacyBooksIntoPriceRangesAndSorts() {
+        mongoTemplate.insert(new Document("_id", "legacy").append("authorName", "Ivan Franchin")
+                .append("normalizedAuthorName", "ivan franchin").append("title", "Legacy").append("price", "15.50"), "books");
+        Book cheapBook = mongoTemplate.save(new Book("Ivan Franchin", "Cheap", BigDecimal.valueOf(9.99)));
+        Book expensiveBook = mongoTemplate.save(new Book("Ivan Franchin", "Expensive", BigDecimal.valueOf(29.99)));
+        Query priceRange = Query.query(Criteria.where("price").gte(BigDecimal.valueOf(5)).lte(BigDecimal.valueOf(20)));
+        Query byPrice = new Query().with(Sort.by("price"));
+
+        assertThat(bookRepository.findViews(priceRange)).extracting(BookView::id).containsExactly(cheapBook.getId());
+        assertThat(bookRepository.findViews(byPrice)).extracting(BookView::id).last().isEqualTo("legacy");
+
+        assertThat(bookRepository.convertStringPrices()).isEqualTo(1);
+
+        assertThat(bookRepository.findViews(priceRange.with(Sort.by("price")))).extracting(BookView::id)
+                .containsExactly(cheapBook.getId(), "legacy");
+        assertThat(bookRepository.findViews(byPrice)).extracting(BookView::id)
+                .containsExactly(cheapBook.getId(), "legacy", expensiveBook.getId());
+        assertThat(bookRepository.findById("legacy")).get().extracting(Book::getPrice).isEqualTo(new BigDecimal("15.50"));
+        assertThat(bookRepository.convertStringPrices()).isZero();
+    }
+
+    @Test
+    void testNormalizeAuthorNamesSetsItOnLegacyBooksOnly() {
+        mongoTemplate.insert(new Document("_id", "legacy").append("authorName", " Émile ZOLA ")
+                .append("title", "Germinal").append("price", Decimal128.parse("15.50")), "books");
+        mongoTemplate.insert(new Document("_id", "anonymous").append("title", "Anonymous")
+                .append("price", Decimal128.parse("5.00")), "books");
+        Book book = bookRepository.save(getDefaultBook());
+
+        assertThat(bookRepository.normalizeAuthorNames()).isEqualTo(2);
+
+        assertThat(bookRepository.findById("legacy")).get()
+                .extracting(Book::getNormalizedAuthorName).isEqualTo("émile zola");
+        assertThat(bookRepository.findById(book.getId())).get()
+                .extracting(Book::getNormalizedAuthorName).isEqualTo("ivan franchin");
+        assertThat(bookRepository.normalizeAuthorNames()).isZero();
+    }
+
     private Book getDefaultBook() {
         return new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
     }
@@ -0,0 +1,75 @@
+package com.ivanfranchin.bookservice.repository;
+
+import com.ivanfranchin.bookservice.book.ReactiveBookRepository;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+@Testcontainers
+@DataMongoTest
+class ReactiveBookRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    private static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:8.0.6");
+
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @BeforeEach
+    void setUp() {
+        reactiveBookRepository.deleteAll().block();
+    }
+
+    @Test
+    void testFindByIdWhenNonExistent() {
+        StepVerifier.create(reactiveBookRepository.findById("123"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindByIdWhenExistent() {
+        Book book = reactiveBookRepository.save(getDefaultBook()).block();
+
+        StepVerifier.create(reactiveBookRepository.findById(book.getId()))
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindViewsByNormalizedAuthorNameRangeWhenThereIsOne() {
+        reactiveBookRepository.save(getDefaultBook()).block();
+
+        Query query = Query.query(Criteria.where("normalizedAuthorName").gte("ivan").lt("ivao")).limit(10);
+        query.fields().include("id", "version", "authorName");
+
+        StepVerifier.create(reactiveBookRepository.findViews(query))
+                .expectNextMatches(book -> book.authorName().equals("Ivan Franchin") && book.title() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamAllBy() {
+        reactiveBookRepository.save(getDefaultBook()).block();
+        reactiveBookRepository.save(getDefaultBook()).block();
+
+        StepVerifier.create(reactiveBookRepository.streamAllBy())
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    private Book getDefaultBook() {
+        return new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ivanfranchin.bookservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(SpringExtension.class)
+@Import({JwtAuthCacheProperties.class, JwtAuthenticationCache.class})
+class CachingJwtAuthenticationManagerTest {
+
+    @Autowired
+    private JwtAuthenticationCache jwtAuthenticationCache;
+
+    @MockitoBean
+    private AuthenticationManager delegate;
+
+    private CachingJwtAuthenticationManager cachingJwtAuthenticationManager;
+
+    @BeforeEach
+    void setUp() {
+        cachingJwtAuthenticationManager = new CachingJwtAuthenticationManager(delegate, jwtAuthenticationCache);
+    }
+
+    @Test
+    void testAuthenticateSameTokenTwiceDelegatesOnce() {
+        String token = "token-" + System.nanoTime();
+        JwtAuthenticationToken authentication = getJwtAuthentication(token, Instant.now().plus(5, ChronoUnit.MINUTES));
+        given(delegate.authenticate(any(BearerTokenAuthenticationToken.class))).willReturn(authentication);
+
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken(token));
+        Authentication cachedAuthentication = cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken(token));
+
+        then(delegate).should(times(1)).authenticate(any(BearerTokenAuthenticationToken.class));
+        assertThat(cachedAuthentication).isNotSameAs(authentication);
+        assertThat(cachedAuthentication.isAuthenticated()).isTrue();
+        assertThat(cachedAuthentication.getName()).isEqualTo(authentication.getName());
+        assertThat(cachedAuthentication.getAuthorities()).containsExactlyElementsOf(authentication.getAuthorities());
+    }
+
+    @Test
+    void testAuthenticateDifferentTokensDelegatesForEach() {
+        Instant expiresAt = Instant.now().plus(5, ChronoUnit.MINUTES);
+        given(delegate.authenticate(any(BearerTokenAuthenticationToken.class)))
+                .willAnswer(invocation -> getJwtAuthentication(((BearerTokenAuthenticationToken) invocation.getArgument(0)).getToken(), expiresAt));
+
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-a-" + System.nanoTime()));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken("token-b-" + System.nanoTime()));
+
+        then(delegate).should(times(2)).authenticate(any(BearerTokenAuthenticationToken.class));
+    }
+
+    @Test
+    void testAuthenticateExpiredTokenIsNotCached() {
+        String token = "token-" + System.nanoTime();
+        JwtAuthenticationToken authentication = getJwtAuthentication(token, Instant.now().minus(1, ChronoUnit.MINUTES));
+        given(delegate.authenticate(any(BearerTokenAuthenticationToken.class))).willReturn(authentication);
+
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken(token));
+        cachingJwtAuthenticationManager.authenticate(new BearerTokenAuthenticationToken(token));
+
+        then(delegate).should(times(2)).authenticate(any(BearerTokenAuthenticationToken.class));
+    }
+
+    @Test
+    void testAuthenticateFailureIsNotCached() {
+        String token = "token-" + System.nanoTime();
+        given(delegate.authenticate(any(BearerTokenAuthenticationToken.class))).willThrow(new BadCredentialsException("Invalid token"));
+
+        BearerTokenAuthenticationToken bearerToken = new BearerTokenAuthenticationToken(token);
+        assertThrows(BadCredentialsException.class, () -> cachingJwtAuthenticationManager.authenticate(bearerToken));
+        assertThrows(BadCredentialsException.class, () -> cachingJwtAuthenticationManager.authenticate(bearerToken));
+
+        then(delegate).should(times(2)).authenticate(any(BearerTokenAuthenticationToken.class));
+    }
+
+    private JwtAuthenticationToken getJwtAuthentication(String token, Instant expiresAt) {
+        Jwt jwt = Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("ivan.franchin")
+                .issuedAt(expiresAt.minus(10, ChronoUnit.MINUTES))
+                .expiresAt(expiresAt)
+                .build();
+        return new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_manage_books")), "ivan.franchin");
+    }
+}
@@ -0,0 +1,88 @@
+package com.ivanfranchin.bookservice.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthConverterTest {
+
+    private JwtAuthConverter jwtAuthConverter;
+
+    @BeforeEach
+    void setUp() {
+        JwtAuthConverterProperties properties = new JwtAuthConverterProperties();
+        properties.setResourceId("book-service");
+        properties.setPrincipalAttribute("preferred_username");
+        jwtAuthConverter = new JwtAuthConverter(properties);
+    }
+
+    @Test
+    void testConvertGrantsScopesAndResourceRoles() {
+        Jwt jwt = getJwt(Map.of(
+                "scope", "openid email",
+                "resource_access", Map.of(
+                        "book-service", Map.of("roles", List.of("manage_books")),
+                        "account", Map.of("roles", List.of("view-profile")))));
+
+        AbstractAuthenticationToken authentication = jwtAuthConverter.convert(jwt);
+
+        assertThat(authentication.getName()).isEqualTo("ivan.franchin");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("SCOPE_openid", "SCOPE_email", "ROLE_manage_books");
+    }
+
+    @Test
+    void testConvertWithScopeCollection() {
+        Jwt jwt = getJwt(Map.of("scp", List.of("openid", "email")));
+
+        AbstractAuthenticationToken authentication = jwtAuthConverter.convert(jwt);
+
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("SCOPE_openid", "SCOPE_email");
+    }
+
+    @Test
+    void testConvertWithoutScopesNorResourceAccess() {
+        Jwt jwt = getJwt(Map.of("resource_access", Map.of("account", Map.of("roles", List.of("view-profile")))));
+
+        AbstractAuthenticationToken authentication = jwtAuthConverter.convert(jwt);
+
+        assertThat(authentication.getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void testConvertReusesAuthorityInstances() {
+        Jwt jwt = getJwt(Map.of(
+                "scope", "openid",
+                "resource_access", Map.of("book-service", Map.of("roles", List.of("manage_books")))));
+
+        List<GrantedAuthority> authorities = List.copyOf(jwtAuthConverter.convert(jwt).getAuthorities());
+        List<GrantedAuthority> otherAuthorities = List.copyOf(jwtAuthConverter.convert(jwt).getAuthorities());
+
+        assertThat(authorities).hasSize(2);
+        for (int i = 0; i < authorities.size(); i++) {
+            assertThat(otherAuthorities.get(i)).isSameAs(authorities.get(i));
+        }
+    }
+
+    private Jwt getJwt(Map<String, Object> claims) {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("9a5b4c2e-2f0c-4a8e-9d55-1f5b3f8e6c11")
+                .claim("preferred_username", "ivan.franchin")
+                .claims(jwtClaims -> jwtClaims.putAll(claims))
+                .issuedAt(now)
+                .expiresAt(now.plus(5, ChronoUnit.MINUTES))
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.ivanfranchin.bookservice.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtDecoderConfigTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private RSAKey rsaKey;
+    private JwtDecoderConfig jwtDecoderConfig;
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() throws JOSEException, IOException {
+        rsaKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        Path keySetFile = Files.writeString(tempDir.resolve("jwks.json"), new JWKSet(rsaKey.toPublicJWK()).toString());
+
+        OAuth2ResourceServerProperties oAuth2ResourceServerProperties = new OAuth2ResourceServerProperties();
+        oAuth2ResourceServerProperties.getJwt().setIssuerUri(ISSUER_URI);
+        JwksProperties jwksProperties = new JwksProperties();
+        jwksProperties.setKeySetFile(new FileSystemResource(keySetFile));
+
+        jwtDecoderConfig = new JwtDecoderConfig(oAuth2ResourceServerProperties, jwksProperties);
+        jwtDecoder = jwtDecoderConfig.jwtDecoder(jwtDecoderConfig.jwkSource(), new JwtObservations(ObservationRegistry.NOOP));
+    }
+
+    @Test
+    void testDecodeWithKeySetFile() throws JOSEException {
+        String token = sign(rsaKey, ISSUER_URI);
+
+        Jwt jwt = jwtDecoder.decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("ivan.franchin");
+    }
+
+    @Test
+    void testDecodeWhenSignedWithUnknownKey() throws JOSEException {
+        RSAKey unknownKey = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        String token = sign(unknownKey, ISSUER_URI);
+
+        assertThrows(BadJwtException.class, () -> jwtDecoder.decode(token));
+    }
+
+    @Test
+    void testDecodeWhenIssuerDoesNotMatch() throws JOSEException {
+        String token = sign(rsaKey, "http://localhost:8080/realms/other");
+
+        assertThrows(JwtValidationException.class, () -> jwtDecoder.decode(token));
+    }
+
+    @Test
+    void testReactiveDecodeRunsOffTheSubscribingThread() throws JOSEException {
+        String token = sign(rsaKey, ISSUER_URI);
+        AtomicReference<String> decodingThread = new AtomicReference<>();
+        ReactiveJwtDecoder reactiveJwtDecoder = jwtDecoderConfig.reactiveJwtDecoder(t -> {
+            decodingThread.set(Thread.currentThread().getName());
+            return jwtDecoder.decode(t);
+        });
+
+        Jwt jwt = reactiveJwtDecoder.decode(token).block();
+
+        assertThat(jwt).isNotNull();
+        assertThat(jwt.getSubject()).isEqualTo("ivan.franchin");
+        assertThat(decodingThread.get()).startsWith("boundedElastic");
+    }
+
+    private String sign(RSAKey key, String issuer) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("ivan.franchin")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(5, ChronoUnit.MINUTES)))
+                .build();
+        SignedJWT signedJwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claimsSet);
+        signedJwt.sign(new RSASSASigner(key));
+        return signedJwt.serialize();
+    }
+
+    private static final String ISSUER_URI = "http://localhost:8080/realms/company-services";
+}
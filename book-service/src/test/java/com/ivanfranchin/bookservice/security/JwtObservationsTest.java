@@ -0,0 +1,82 @@
+package com.ivanfranchin.bookservice.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtObservationsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtObservations jwtObservations;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        jwtObservations = new JwtObservations(observationRegistry);
+    }
+
+    @Test
+    void testObservedDecoderRecordsSuccess() {
+        Jwt jwt = getJwt();
+        JwtDecoder jwtDecoder = jwtObservations.observed((JwtDecoder) token -> jwt);
+
+        assertThat(jwtDecoder.decode("token")).isSameAs(jwt);
+        assertThat(count(JwtObservations.DECODE_OBSERVATION, "success")).isEqualTo(1);
+        assertThat(count(JwtObservations.DECODE_OBSERVATION, "failure")).isZero();
+    }
+
+    @Test
+    void testObservedDecoderRecordsFailure() {
+        JwtDecoder jwtDecoder = jwtObservations.observed((JwtDecoder) token -> {
+            throw new BadJwtException("Invalid token");
+        });
+
+        assertThrows(BadJwtException.class, () -> jwtDecoder.decode("token"));
+        assertThat(count(JwtObservations.DECODE_OBSERVATION, "success")).isZero();
+        assertThat(count(JwtObservations.DECODE_OBSERVATION, "failure")).isEqualTo(1);
+        assertThat(meterRegistry.get(JwtObservations.DECODE_OBSERVATION).tag("error", "BadJwtException").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testObservedConverterRecordsSuccess() {
+        JwtAuthConverterProperties properties = new JwtAuthConverterProperties();
+        properties.setResourceId("book-service");
+        properties.setPrincipalAttribute("preferred_username");
+        Converter<Jwt, AbstractAuthenticationToken> jwtAuthConverter = jwtObservations.observed(new JwtAuthConverter(properties));
+
+        assertThat(jwtAuthConverter.convert(getJwt())).isNotNull();
+        assertThat(count(JwtObservations.CONVERT_OBSERVATION, "success")).isEqualTo(1);
+    }
+
+    private long count(String name, String outcome) {
+        Timer timer = meterRegistry.find(name).tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private Jwt getJwt() {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("ivan.franchin")
+                .claim("preferred_username", "ivan.franchin")
+                .issuedAt(now)
+                .expiresAt(now.plus(5, ChronoUnit.MINUTES))
+                .build();
+    }
+}
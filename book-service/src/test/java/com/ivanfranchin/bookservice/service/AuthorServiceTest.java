@@ -0,0 +1,176 @@
+package com.ivanfranchin.bookservice.service;
+
+import com.ivanfranchin.bookservice.book.AuthorRepository;
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.exception.AuthorNotFoundException;
+import com.ivanfranchin.bookservice.book.model.Author;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(SpringExtension.class)
+@Import({AuthorService.class, BookProperties.class})
+class AuthorServiceTest {
+
+    @Autowired
+    private AuthorService authorService;
+
+    @MockitoBean
+    private AuthorRepository authorRepository;
+
+    @Test
+    void testGetAuthorsByNamePrefixIsARangeOnTheNormalizedName() {
+        Author author = getDefaultAuthor();
+        given(authorRepository.findByIdPrefix("ivan", "ivao", Limit.of(1000))).willReturn(List.of(author));
+
+        List<Author> authors = authorService.getAuthors(" IVAN");
+        assertThat(authors).containsExactly(author);
+    }
+
+    @Test
+    void testGetAuthorsByNamePrefixEndingInTheLastCharacterOfTheBmp() {
+        authorService.getAuthors("ab\uFFFF");
+
+        then(authorRepository).should().findByIdPrefix("ab\uFFFF", "ab\uD800\uDC00", Limit.of(1000));
+    }
+
+    @Test
+    void testGetAuthorsByNamePrefixEndingInASurrogatePair() {
+        authorService.getAuthors("ab\uD83D\uDE00");
+
+        then(authorRepository).should().findByIdPrefix("ab\uD83D\uDE00", "ab\uD83D\uDE01", Limit.of(1000));
+    }
+
+    @Test
+    void testGetAuthorsByNamePrefixEndingInALoneSurrogate() {
+        authorService.getAuthors("ab\uD83D");
+
+        then(authorRepository).should().findByIdPrefix("ab\uD83D", "ac", Limit.of(1000));
+    }
+
+    @Test
+    void testGetAuthorsByNamePrefixWithNoUpperBound() {
+        authorService.getAuthors("\uDBFF\uDFFF");
+
+        then(authorRepository).should().findByIdGreaterThanEqualOrderByIdAsc("\uDBFF\uDFFF", Limit.of(1000));
+        then(authorRepository).should(never()).findByIdPrefix(anyString(), anyString(), any(Limit.class));
+    }
+
+    @Test
+    void testValidateAndGetAuthorIgnoresCase() {
+        Author author = getDefaultAuthor();
+        given(authorRepository.findById("ivan franchin")).willReturn(Optional.of(author));
+
+        assertThat(authorService.validateAndGetAuthor("Ivan Franchin")).isEqualTo(author);
+    }
+
+    @Test
+    void testValidateAndGetAuthorWhenNonExistent() {
+        given(authorRepository.findById("ivan franchin")).willReturn(Optional.empty());
+
+        Throwable exception = assertThrows(AuthorNotFoundException.class, () -> authorService.validateAndGetAuthor("Ivan Franchin"));
+        assertThat(exception.getMessage()).isEqualTo("Author 'Ivan Franchin' not found.");
+    }
+
+    @Test
+    void testRefreshAuthorsSkipsMissingAndRepeatedNames() {
+        authorService.refreshAuthors(Arrays.asList("ivan franchin", null, "ivan franchin"));
+
+        then(authorRepository).should().refresh(Set.of("ivan franchin"));
+    }
+
+    @Test
+    void testRefreshAuthorsWithoutNamesDoesNotQuery() {
+        authorService.refreshAuthors(Arrays.asList((String) null));
+
+        then(authorRepository).should(never()).refresh(anyCollection());
+    }
+
+    @Test
+    void testRefreshAuthorsFailureIsNotPropagated() {
+        willThrow(new IllegalStateException("MongoDB unavailable")).given(authorRepository).refresh(anyCollection());
+
+        assertDoesNotThrow(() -> authorService.refreshAuthors(List.of("ivan franchin")));
+    }
+
+    @Test
+    void testUpdateBookChangingTitleLeavesAuthorsAsTheyAre() {
+        Book book = getDefaultBook();
+
+        authorService.updateBook(book, new Book(book.getId(), book.getAuthorName(), "Java 9", book.getPrice()));
+
+        then(authorRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testUpdateBookChangingPriceInsideTheRangeDoesNotRefresh() {
+        Book book = getDefaultBook();
+        given(authorRepository.changePrice("ivan franchin", book.getPrice(), BigDecimal.TEN)).willReturn(true);
+
+        authorService.updateBook(book, new Book(book.getId(), book.getAuthorName(), book.getTitle(), BigDecimal.TEN));
+
+        then(authorRepository).should(never()).refresh(anyCollection());
+    }
+
+    @Test
+    void testUpdateBookChangingPriceAtAnEndOfTheRangeRefreshes() {
+        Book book = getDefaultBook();
+        given(authorRepository.changePrice("ivan franchin", book.getPrice(), BigDecimal.TEN)).willReturn(false);
+
+        authorService.updateBook(book, new Book(book.getId(), book.getAuthorName(), book.getTitle(), BigDecimal.TEN));
+
+        then(authorRepository).should().refresh(Set.of("ivan franchin"));
+    }
+
+    @Test
+    void testUpdateBookChangingAuthorRefreshesThePreviousOneAndAddsToTheNewOne() {
+        Book book = getDefaultBook();
+        Book bookUpdated = new Book(book.getId(), "Josh Long", book.getTitle(), book.getPrice());
+
+        authorService.updateBook(book, bookUpdated);
+
+        then(authorRepository).should().refresh(Set.of("ivan franchin"));
+        then(authorRepository).should().addBooks(List.of(bookUpdated));
+    }
+
+    @Test
+    void testUpdateBookChangingAuthorSpellingOnlyRefreshesIt() {
+        Book book = getDefaultBook();
+
+        authorService.updateBook(book, new Book(book.getId(), "IVAN FRANCHIN", book.getTitle(), book.getPrice()));
+
+        then(authorRepository).should().refresh(Set.of("ivan franchin"));
+        then(authorRepository).should(never()).addBooks(anyCollection());
+    }
+
+    private Book getDefaultBook() {
+        return new Book("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+    }
+
+    private Author getDefaultAuthor() {
+        return new Author("ivan franchin", "Ivan Franchin", 1, BigDecimal.valueOf(29.99), BigDecimal.valueOf(29.99));
+    }
+}
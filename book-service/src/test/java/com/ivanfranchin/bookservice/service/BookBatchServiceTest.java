@@ -0,0 +1,222 @@
+package com.ivanfranchin.bookservice.service;
+
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookBatchService;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookRepositoryCustom.BulkResult;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse;
+import com.ivanfranchin.bookservice.book.dto.BookBatchItemResponse.Status;
+import com.ivanfranchin.bookservice.book.dto.CreateBookRequest;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookBatchRequest;
+import com.ivanfranchin.bookservice.book.exception.BookBatchTooLargeException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.ivanfranchin.bookservice.config.CacheConfig.BOOKS_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(SpringExtension.class)
+@Import({BookBatchService.class, BookProperties.class, LocalValidatorFactoryBean.class, ConcurrentMapCacheManager.class})
+class BookBatchServiceTest {
+
+    @Autowired
+    private BookBatchService bookBatchService;
+
+    @MockitoBean
+    private BookRepository bookRepository;
+
+    @MockitoBean
+    private AuthorService authorService;
+
+    @MockitoBean
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void testCreateBooksWhenAllAreValid() {
+        given(bookRepository.bulkInsert(anyList(), eq(true))).willReturn(Map.of());
+
+        List<BookBatchItemResponse> results = bookBatchService.createBooks(
+                List.of(getDefaultCreateBookRequest(), getDefaultCreateBookRequest()), true);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.CREATED, Status.CREATED);
+        assertThat(results).extracting(BookBatchItemResponse::id).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testCreateBooksUnorderedWhenOneIsInvalid() {
+        CreateBookRequest invalidCreateBookRequest = new CreateBookRequest("Ivan Franchin", "", BigDecimal.valueOf(-1));
+        given(bookRepository.bulkInsert(anyList(), eq(false))).willReturn(Map.of());
+
+        List<BookBatchItemResponse> results = bookBatchService.createBooks(
+                List.of(invalidCreateBookRequest, getDefaultCreateBookRequest()), false);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.INVALID, Status.CREATED);
+        assertThat(results.getFirst().error()).startsWith("price: ").contains(", title: ");
+    }
+
+    @Test
+    void testCreateBooksOrderedWhenOneIsInvalid() {
+        CreateBookRequest invalidCreateBookRequest = new CreateBookRequest("", "SpringBoot", BigDecimal.ONE);
+        given(bookRepository.bulkInsert(anyList(), eq(true))).willReturn(Map.of());
+
+        List<BookBatchItemResponse> results = bookBatchService.createBooks(
+                List.of(getDefaultCreateBookRequest(), invalidCreateBookRequest, getDefaultCreateBookRequest()), true);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.CREATED, Status.INVALID, Status.SKIPPED);
+    }
+
+    @Test
+    void testCreateBooksOrderedWhenOneWriteFails() {
+        given(bookRepository.bulkInsert(anyList(), eq(true))).willReturn(Map.of(1, "E11000 duplicate key error"));
+
+        List<BookBatchItemResponse> results = bookBatchService.createBooks(
+                List.of(getDefaultCreateBookRequest(), getDefaultCreateBookRequest(), getDefaultCreateBookRequest()), true);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.CREATED, Status.FAILED, Status.SKIPPED);
+        assertThat(results.get(1).error()).isEqualTo("E11000 duplicate key error");
+    }
+
+    @Test
+    void testCreateBooksWhenBatchIsTooLarge() {
+        List<CreateBookRequest> createBookRequests = Collections.nCopies(1001, getDefaultCreateBookRequest());
+
+        assertThrows(BookBatchTooLargeException.class, () -> bookBatchService.createBooks(createBookRequests, true));
+    }
+
+    @Test
+    void testUpdateBooks() {
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123"));
+        given(bookRepository.bulkUpdate(anyList(), anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        List<BookBatchItemResponse> results = bookBatchService.updateBooks(List.of(
+                new UpdateBookBatchRequest("123", null, "Java 9", null),
+                new UpdateBookBatchRequest("456", null, "Java 9", null),
+                new UpdateBookBatchRequest("123", null, null, null)), false);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.UPDATED, Status.NOT_FOUND, Status.INVALID);
+        then(bookRepository).should().bulkUpdate(eq(List.of("123")), anyList(), eq(false));
+    }
+
+    @Test
+    void testDeleteBooks() {
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123"));
+        given(bookRepository.bulkRemove(anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        List<BookBatchItemResponse> results = bookBatchService.deleteBooks(List.of("123", "456", " "), false);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.DELETED, Status.NOT_FOUND, Status.INVALID);
+        then(bookRepository).should().bulkRemove(List.of("123"), false);
+        then(bookCatalogueSnapshot).should().invalidate();
+    }
+
+    @Test
+    void testDeleteBooksRefreshesTheAuthorsTheyHad() {
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123", "456"));
+        given(bookRepository.findNormalizedAuthorNames(List.of("123", "456"))).willReturn(Set.of("ivan franchin"));
+        given(bookRepository.bulkRemove(anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 2));
+
+        bookBatchService.deleteBooks(List.of("123", "456"), true);
+
+        then(authorService).should().refreshAuthors(Set.of("ivan franchin"));
+    }
+
+    @Test
+    void testUpdateBooksChangingAuthorRefreshesPreviousAndNewAuthors() {
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123"));
+        given(bookRepository.findNormalizedAuthorNames(List.of("123")))
+                .willReturn(Set.of("ivan franchin"))
+                .willReturn(Set.of("ivan g. franchin"));
+        given(bookRepository.bulkUpdate(anyList(), anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        bookBatchService.updateBooks(List.of(new UpdateBookBatchRequest("123", "Ivan G. Franchin", null, null)), true);
+
+        then(authorService).should().refreshAuthors(Set.of("ivan franchin", "ivan g. franchin"));
+    }
+
+    @Test
+    void testUpdateBooksReportsBooksRemovedBeforeTheBulkWriteAsNotFound() {
+        given(bookRepository.findExistingIds(anyCollection()))
+                .willReturn(Set.of("123", "456"))
+                .willReturn(Set.of("123"));
+        given(bookRepository.bulkUpdate(anyList(), anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        List<BookBatchItemResponse> results = bookBatchService.updateBooks(List.of(
+                new UpdateBookBatchRequest("123", null, "Java 9", null),
+                new UpdateBookBatchRequest("456", null, "Java 9", null)), false);
+
+        assertThat(results).extracting(BookBatchItemResponse::status).containsExactly(Status.UPDATED, Status.NOT_FOUND);
+    }
+
+    @Test
+    void testUpdateBooksEvictsOnlyTheBooksOfTheBatch() {
+        Cache cache = cacheManager.getCache(BOOKS_CACHE);
+        cache.put("123", "book 123");
+        cache.put("789", "book 789");
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123"));
+        given(bookRepository.bulkUpdate(anyList(), anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        bookBatchService.updateBooks(List.of(new UpdateBookBatchRequest("123", null, "Java 9", null)), false);
+
+        assertThat(cache.get("123")).isNull();
+        assertThat(cache.get("789")).isNotNull();
+    }
+
+    @Test
+    void testBatchesWithNullItemsReportThemAsInvalid() {
+        given(bookRepository.bulkInsert(anyList(), anyBoolean())).willReturn(Map.of());
+        given(bookRepository.findExistingIds(anyCollection())).willReturn(Set.of("123"));
+        given(bookRepository.bulkUpdate(anyList(), anyList(), anyBoolean())).willReturn(new BulkResult(Map.of(), 1));
+
+        List<BookBatchItemResponse> createResults = bookBatchService.createBooks(
+                Arrays.asList(null, getDefaultCreateBookRequest()), false);
+        List<BookBatchItemResponse> updateResults = bookBatchService.updateBooks(
+                Arrays.asList(null, new UpdateBookBatchRequest("123", null, "Java 9", null)), false);
+
+        assertThat(createResults).extracting(BookBatchItemResponse::status).containsExactly(Status.INVALID, Status.CREATED);
+        assertThat(updateResults).extracting(BookBatchItemResponse::status).containsExactly(Status.INVALID, Status.UPDATED);
+        assertThat(updateResults.getFirst().error()).isEqualTo("must not be null");
+    }
+
+    @Test
+    void testToUpdateSetsOnlyInformedFields() {
+        Update update = Book.toUpdate(new UpdateBookBatchRequest("123", "Ivan G. Franchin", null, null).toUpdateBookRequest());
+
+        assertThat(update.getUpdateObject().get("$set", Document.class))
+                .containsOnlyKeys("authorName", "normalizedAuthorName")
+                .containsEntry("normalizedAuthorName", "ivan g. franchin");
+    }
+
+    private CreateBookRequest getDefaultCreateBookRequest() {
+        return new CreateBookRequest("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ivanfranchin.bookservice.service;
+
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(SpringExtension.class)
+@Import({BookCatalogueSnapshot.class, BookProperties.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookCatalogueSnapshotTest {
+
+    @Autowired
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    @Autowired
+    private BookProperties bookProperties;
+
+    @MockitoBean
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookProperties.getCatalogueSnapshot().setEnabled(true);
+        bookCatalogueSnapshot.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookProperties.getCatalogueSnapshot().setEnabled(false);
+    }
+
+    @Test
+    void testGetWhenDisabled() {
+        bookProperties.getCatalogueSnapshot().setEnabled(false);
+
+        assertThat(bookCatalogueSnapshot.get()).isNull();
+        then(bookRepository).should(never()).findViews(any(Query.class));
+    }
+
+    @Test
+    void testGetIsBuiltOnceUntilInvalidated() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(List.of(getDefaultBookView()));
+
+        BookCatalogueSnapshot.Snapshot snapshot = bookCatalogueSnapshot.get();
+
+        assertThat(bookCatalogueSnapshot.get()).isSameAs(snapshot);
+        then(bookRepository).should(times(1)).findViews(any(Query.class));
+    }
+
+    @Test
+    void testGetAfterInvalidateIsBuiltAgain() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(List.of(getDefaultBookView()));
+        BookCatalogueSnapshot.Snapshot snapshot = bookCatalogueSnapshot.get();
+
+        given(bookRepository.findViews(any(Query.class))).willReturn(List.of());
+        bookCatalogueSnapshot.invalidate();
+
+        BookCatalogueSnapshot.Snapshot rebuiltSnapshot = bookCatalogueSnapshot.get();
+        assertThat(new String(rebuiltSnapshot.json(), StandardCharsets.UTF_8)).isEqualTo("[]");
+        assertThat(rebuiltSnapshot.eTag()).isNotEqualTo(snapshot.eTag());
+    }
+
+    @Test
+    void testGetHoldsTheListAsJsonAndGzippedJson() throws IOException {
+        given(bookRepository.findViews(any(Query.class))).willReturn(List.of(getDefaultBookView()));
+
+        BookCatalogueSnapshot.Snapshot snapshot = bookCatalogueSnapshot.get();
+
+        assertThat(new String(snapshot.json(), StandardCharsets.UTF_8))
+                .isEqualTo("[{\"id\":\"123\",\"authorName\":\"Ivan Franchin\",\"title\":\"SpringBoot\",\"price\":29.99}]");
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzippedJson()))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(snapshot.json());
+        }
+    }
+
+    private BookView getDefaultBookView() {
+        return new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ivanfranchin.bookservice.service;
+
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.BookRepository;
+import com.ivanfranchin.bookservice.book.BookService;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.config.CacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(SpringExtension.class)
+@Import({BookService.class, BookProperties.class, CacheConfig.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.cache.type=caffeine",
+        "spring.cache.cache-names=books"
+})
+class BookServiceCacheTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private BookRepository bookRepository;
+
+    @MockitoBean
+    private AuthorService authorService;
+
+    @MockitoBean
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.BOOKS_CACHE).clear();
+    }
+
+    @Test
+    void testValidateAndGetBookByIdIsCached() {
+        Book book = getDefaultBook();
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+
+        bookService.validateAndGetBookById(book.getId());
+        Book bookFound = bookService.validateAndGetBookById(book.getId());
+
+        assertThat(bookFound).isEqualTo(book);
+        then(bookRepository).should(times(1)).findById(book.getId());
+    }
+
+    @Test
+    void testSaveBookEvictsCachedBook() {
+        Book book = getDefaultBook();
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+        given(bookRepository.save(any(Book.class))).willReturn(book);
+
+        bookService.validateAndGetBookById(book.getId());
+        bookService.saveBook(book);
+        bookService.validateAndGetBookById(book.getId());
+
+        then(bookRepository).should(times(2)).findById(book.getId());
+    }
+
+    @Test
+    void testUpdateBookEvictsCachedBook() {
+        Book book = getDefaultBook();
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+        given(bookRepository.findAndUpdateById(eq(book.getId()), isNull(), any(Update.class)))
+                .willReturn(Optional.of(new BookChange(book, book)));
+
+        bookService.validateAndGetBookById(book.getId());
+        bookService.updateBook(book.getId(), null, new UpdateBookRequest(null, "Java 9", null));
+        bookService.validateAndGetBookById(book.getId());
+
+        then(bookRepository).should(times(2)).findById(book.getId());
+    }
+
+    @Test
+    void testDeleteBookEvictsCachedBook() {
+        Book book = getDefaultBook();
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+        given(bookRepository.findAndRemoveById(book.getId(), null)).willReturn(Optional.of(book));
+
+        bookService.validateAndGetBookById(book.getId());
+        bookService.deleteBook(book.getId(), null);
+        bookService.validateAndGetBookById(book.getId());
+
+        then(bookRepository).should(times(2)).findById(book.getId());
+    }
+
+    private Book getDefaultBook() {
+        Book book = new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        book.setId("123");
+        return book;
+    }
+}
@@ -1,13 +1,31 @@
 package com.ivanfranchin.bookservice.service;
 
+import com.ivanfranchin.bookservice.book.AuthorService;
+import com.ivanfranchin.bookservice.book.BookCatalogueSnapshot;
+import com.ivanfranchin.bookservice.book.BookCursor;
+import com.ivanfranchin.bookservice.book.BookProperties;
 import com.ivanfranchin.bookservice.book.BookService;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
 import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.exception.BookPreconditionFailedException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookCursorException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookSortException;
 import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookPage;
+import com.ivanfranchin.bookservice.book.model.BookView;
 import com.ivanfranchin.bookservice.book.BookRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -19,19 +37,38 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
 
 @ExtendWith(SpringExtension.class)
-@Import(BookService.class)
+@Import({BookService.class, BookProperties.class})
 class BookServiceTest {
 
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookProperties bookProperties;
+
     @MockitoBean
     private BookRepository bookRepository;
 
+    @MockitoBean
+    private AuthorService authorService;
+
+    @MockitoBean
+    private BookCatalogueSnapshot bookCatalogueSnapshot;
+
+    @AfterEach
+    void tearDown() {
+        bookProperties.getAuthorSearch().setMode(BookProperties.AuthorSearch.Mode.PREFIX);
+    }
+
     @Test
     void testSaveBook() {
         Book book = getDefaultBook();
@@ -41,32 +78,254 @@ class BookServiceTest {
         assertThat(bookSaved).isEqualTo(book);
     }
 
+    @Test
+    void testSaveBookInvalidatesTheCatalogueSnapshot() {
+        Book book = getDefaultBook();
+        given(bookRepository.save(any(Book.class))).willReturn(book);
+
+        bookService.saveBook(book);
+
+        then(bookCatalogueSnapshot).should().invalidate();
+    }
+
+    @Test
+    void testSaveBookAddsItToItsAuthor() {
+        Book book = getDefaultBook();
+        given(bookRepository.save(any(Book.class))).willReturn(book);
+
+        bookService.saveBook(book);
+        then(authorService).should().addBooks(List.of(book));
+        then(authorService).should(never()).refreshAuthors(anyCollection());
+    }
+
     @Test
     void testGetBooksWhenThereIsNone() {
-        given(bookRepository.findAll()).willReturn(Collections.emptyList());
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.emptyList());
 
-        List<Book> booksFound = bookService.getBooks();
+        List<BookView> booksFound = bookService.getBooks(BookFilter.none(), ALL_FIELDS);
         assertThat(booksFound).isEmpty();
     }
 
     @Test
     void testGetBooksWhenThereIsOne() {
+        BookView book = getDefaultBookView();
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.singletonList(book));
+
+        List<BookView> booksFound = bookService.getBooks(BookFilter.none(), ALL_FIELDS);
+        assertThat(booksFound).containsExactly(book);
+    }
+
+    @Test
+    void testGetBooksCapsUnpagedResultsAndSortsById() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.emptyList());
+
+        bookService.getBooks(BookFilter.none(), ALL_FIELDS);
+
+        Query query = captureViewsQuery();
+        assertThat(query.getLimit()).isEqualTo(1000);
+        assertThat(query.getSortObject()).isEqualTo(new Document("id", 1));
+    }
+
+    @Test
+    void testGetBooksProjectsOnlyInformedFieldsWithIdAndVersion() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.emptyList());
+
+        bookService.getBooks(BookFilter.none(), List.of("title"));
+
+        assertThat(captureViewsQuery().getFieldsObject().keySet()).containsExactlyInAnyOrder("id", "version", "title");
+    }
+
+    @Test
+    void testGetBooksPageWhenThereIsNoNextPage() {
         Book book = getDefaultBook();
-        given(bookRepository.findAll()).willReturn(Collections.singletonList(book));
+        given(bookRepository.findAllByOrderByIdAsc(Limit.of(3))).willReturn(Collections.singletonList(book));
+
+        BookPage bookPage = bookService.getBooks(null, 2);
+        assertThat(bookPage.books()).containsExactly(book);
+        assertThat(bookPage.next()).isNull();
+    }
+
+    @Test
+    void testGetBooksPageWhenThereIsNextPage() {
+        Book book1 = getDefaultBook();
+        Book book2 = getDefaultBook();
+        book2.setId("456");
+        given(bookRepository.findAllByOrderByIdAsc(Limit.of(2))).willReturn(List.of(book1, book2));
+
+        BookPage bookPage = bookService.getBooks(null, 1);
+        assertThat(bookPage.books()).containsExactly(book1);
+        assertThat(bookPage.next()).isEqualTo(BookCursor.encode(book1.getId()));
+    }
+
+    @Test
+    void testGetBooksPageInformingCursor() {
+        Book book = getDefaultBook();
+        given(bookRepository.findByIdGreaterThanOrderByIdAsc("123", Limit.of(21))).willReturn(Collections.singletonList(book));
+
+        BookPage bookPage = bookService.getBooks(BookCursor.encode("123"), null);
+        assertThat(bookPage.books()).containsExactly(book);
+        assertThat(bookPage.next()).isNull();
+    }
+
+    @Test
+    void testGetBooksPageCapsPageSize() {
+        given(bookRepository.findAllByOrderByIdAsc(Limit.of(101))).willReturn(Collections.emptyList());
+
+        BookPage bookPage = bookService.getBooks(null, 5000);
+        assertThat(bookPage.books()).isEmpty();
+    }
 
-        List<Book> booksFound = bookService.getBooks();
-        assertThat(booksFound).hasSize(1);
-        assertThat(booksFound.getFirst()).isEqualTo(book);
+    @Test
+    void testGetBooksPageInformingInvalidCursor() {
+        assertThrows(InvalidBookCursorException.class, () -> bookService.getBooks("%%%", null));
     }
 
     @Test
     void testGetBooksByAuthorNameWhenAuthorHasOneBook() {
+        BookView book = getDefaultBookView();
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.singletonList(book));
+
+        List<BookView> booksFound = bookService.getBooks(new BookFilter(" Ivan", null, null, null, null), ALL_FIELDS);
+        assertThat(booksFound).containsExactly(book);
+
+        Query query = captureViewsQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("normalizedAuthorName", new Document("$gte", "ivan").append("$lt", "ivao")));
+        assertThat(query.getSortObject()).isEqualTo(new Document("normalizedAuthorName", 1).append("title", 1));
+    }
+
+    @Test
+    void testGetBooksByAuthorNameUsingTextSearch() {
+        bookProperties.getAuthorSearch().setMode(BookProperties.AuthorSearch.Mode.TEXT);
+        BookView book = getDefaultBookView();
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.singletonList(book));
+
+        List<BookView> booksFound = bookService.getBooks(new BookFilter("Franchin", null, null, null, null), ALL_FIELDS);
+        assertThat(booksFound).containsExactly(book);
+        assertThat(captureViewsQuery().getQueryObject()).containsKey("$text");
+    }
+
+    @Test
+    void testGetBooksByTitlePrefixAndPriceRange() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.emptyList());
+
+        BookFilter bookFilter = new BookFilter(null, "Spring", BigDecimal.TEN, BigDecimal.valueOf(50), "-price");
+        bookService.getBooks(bookFilter, ALL_FIELDS);
+
+        Query query = captureViewsQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("title", new Document("$gte", "Spring").append("$lt", "Sprinh"))
+                .append("price", new Document("$gte", BigDecimal.TEN).append("$lte", BigDecimal.valueOf(50))));
+        assertThat(query.getSortObject()).isEqualTo(new Document("price", -1));
+    }
+
+    @Test
+    void testGetBooksSortedByAuthorNameUsesNormalizedAuthorName() {
+        given(bookRepository.findViews(any(Query.class))).willReturn(Collections.emptyList());
+
+        bookService.getBooks(new BookFilter(null, null, BigDecimal.ONE, null, "authorName"), ALL_FIELDS);
+
+        Query query = captureViewsQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("price", new Document("$gte", BigDecimal.ONE)));
+        assertThat(query.getSortObject()).isEqualTo(new Document("normalizedAuthorName", 1));
+    }
+
+    @Test
+    void testGetBooksInformingInvalidSort() {
+        BookFilter bookFilter = new BookFilter(null, null, null, null, "-updatedAt");
+        assertThrows(InvalidBookSortException.class, () -> bookService.getBooks(bookFilter, ALL_FIELDS));
+        then(bookRepository).should(never()).findViews(any(Query.class));
+    }
+
+    @Test
+    void testUpdateBookWhenExistent() {
+        Book book = getDefaultBook();
+        Book bookUpdated = new Book(book.getId(), book.getAuthorName(), "Java 9", book.getPrice());
+        given(bookRepository.findAndUpdateById(eq(book.getId()), isNull(), any(Update.class)))
+                .willReturn(Optional.of(new BookChange(book, bookUpdated)));
+
+        Book bookReturned = bookService.updateBook(book.getId(), null, new UpdateBookRequest(null, "Java 9", null));
+        assertThat(bookReturned).isEqualTo(bookUpdated);
+    }
+
+    @Test
+    void testUpdateBookChangingAuthorAdjustsAuthorsWithoutReadingTheBookFirst() {
         Book book = getDefaultBook();
-        given(bookRepository.findByAuthorNameLike(book.getAuthorName())).willReturn(Collections.singletonList(book));
+        Book bookUpdated = new Book(book.getId(), "Ivan G. Franchin", book.getTitle(), book.getPrice());
+        given(bookRepository.findAndUpdateById(eq(book.getId()), isNull(), any(Update.class)))
+                .willReturn(Optional.of(new BookChange(book, bookUpdated)));
 
-        List<Book> booksFound = bookService.getBooksByAuthorName(book.getAuthorName());
-        assertThat(booksFound).hasSize(1);
-        assertThat(booksFound.getFirst()).isEqualTo(book);
+        bookService.updateBook(book.getId(), null, new UpdateBookRequest("Ivan G. Franchin", null, null));
+        then(authorService).should().updateBook(book, bookUpdated);
+        then(bookRepository).should(never()).findById(anyString());
+    }
+
+    @Test
+    void testUpdateBookWithoutFieldsDoesNotWrite() {
+        Book book = getDefaultBook();
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+
+        Book bookFound = bookService.updateBook(book.getId(), null, new UpdateBookRequest(null, null, null));
+        assertThat(bookFound).isEqualTo(book);
+        then(bookRepository).should(never()).findAndUpdateById(anyString(), any(), any(Update.class));
+    }
+
+    @Test
+    void testUpdateBookWhenNonExistent() {
+        given(bookRepository.findAndUpdateById(anyString(), isNull(), any(Update.class))).willReturn(Optional.empty());
+
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", null);
+        assertThrows(BookNotFoundException.class, () -> bookService.updateBook("123", null, updateBookRequest));
+    }
+
+    @Test
+    void testUpdateBookWhenVersionDoesNotMatch() {
+        given(bookRepository.findAndUpdateById(eq("123"), eq(3L), any(Update.class))).willReturn(Optional.empty());
+        given(bookRepository.existsById("123")).willReturn(true);
+
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, "Java 9", null);
+        assertThrows(BookPreconditionFailedException.class, () -> bookService.updateBook("123", 3L, updateBookRequest));
+    }
+
+    @Test
+    void testUpdateBookWithoutFieldsWhenVersionDoesNotMatch() {
+        Book book = getDefaultBook();
+        book.setVersion(4L);
+        given(bookRepository.findById(book.getId())).willReturn(Optional.of(book));
+
+        UpdateBookRequest updateBookRequest = new UpdateBookRequest(null, null, null);
+        assertThrows(BookPreconditionFailedException.class, () -> bookService.updateBook(book.getId(), 3L, updateBookRequest));
+    }
+
+    @Test
+    void testDeleteBookWhenExistent() {
+        Book book = getDefaultBook();
+        given(bookRepository.findAndRemoveById(book.getId(), null)).willReturn(Optional.of(book));
+
+        Book bookDeleted = bookService.deleteBook(book.getId(), null);
+        assertThat(bookDeleted).isEqualTo(book);
+        then(authorService).should().refreshAuthors(List.of("ivan franchin"));
+    }
+
+    @Test
+    void testDeleteBookWhenNonExistent() {
+        given(bookRepository.findAndRemoveById(anyString(), isNull())).willReturn(Optional.empty());
+
+        assertThrows(BookNotFoundException.class, () -> bookService.deleteBook("123", null));
+    }
+
+    @Test
+    void testDeleteBookWhenVersionDoesNotMatch() {
+        given(bookRepository.findAndRemoveById("123", 3L)).willReturn(Optional.empty());
+        given(bookRepository.existsById("123")).willReturn(true);
+
+        assertThrows(BookPreconditionFailedException.class, () -> bookService.deleteBook("123", 3L));
+    }
+
+    @Test
+    void testDeleteBookWithVersionWhenNonExistent() {
+        given(bookRepository.findAndRemoveById("123", 3L)).willReturn(Optional.empty());
+        given(bookRepository.existsById("123")).willReturn(false);
+
+        assertThrows(BookNotFoundException.class, () -> bookService.deleteBook("123", 3L));
     }
 
     @Test
@@ -86,9 +345,21 @@ class BookServiceTest {
         assertThat(bookFound).isEqualTo(book);
     }
 
+    private Query captureViewsQuery() {
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        then(bookRepository).should().findViews(queryCaptor.capture());
+        return queryCaptor.getValue();
+    }
+
+    private BookView getDefaultBookView() {
+        return new BookView("123", "Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99), 0L);
+    }
+
     private Book getDefaultBook() {
         Book book = new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
         book.setId("123");
         return book;
     }
-}
\ No newline at end of file
+
+    private static final List<String> ALL_FIELDS = List.of("id", "authorName", "title", "price");
+}
@@ -0,0 +1,145 @@
+package com.ivanfranchin.bookservice.service;
+
+import com.ivanfranchin.bookservice.book.BookCursor;
+import com.ivanfranchin.bookservice.book.BookProperties;
+import com.ivanfranchin.bookservice.book.ReactiveAuthorService;
+import com.ivanfranchin.bookservice.book.ReactiveBookRepository;
+import com.ivanfranchin.bookservice.book.ReactiveBookService;
+import com.ivanfranchin.bookservice.book.dto.UpdateBookRequest;
+import com.ivanfranchin.bookservice.book.exception.BookNotFoundException;
+import com.ivanfranchin.bookservice.book.exception.InvalidBookCursorException;
+import com.ivanfranchin.bookservice.book.model.Book;
+import com.ivanfranchin.bookservice.book.model.BookChange;
+import com.ivanfranchin.bookservice.book.model.BookFilter;
+import com.ivanfranchin.bookservice.book.model.BookView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(SpringExtension.class)
+@Import({ReactiveBookService.class, BookProperties.class})
+class ReactiveBookServiceTest {
+
+    @Autowired
+    private ReactiveBookService reactiveBookService;
+
+    @MockitoBean
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @MockitoBean
+    private ReactiveAuthorService reactiveAuthorService;
+
+    @BeforeEach
+    void setUp() {
+        given(reactiveAuthorService.refreshAuthors(anyCollection())).willReturn(Mono.empty());
+        given(reactiveAuthorService.updateBook(any(Book.class), any(Book.class))).willReturn(Mono.empty());
+    }
+
+    @Test
+    void testGetBooksCapsUnpagedResultsAndProjectsFields() {
+        BookView book = new BookView("123", null, "SpringBoot", null, 0L);
+        given(reactiveBookRepository.findViews(argThat(query -> query.getLimit() == 1000
+                && query.getFieldsObject().keySet().equals(Set.of("id", "version", "title"))))).willReturn(Flux.just(book));
+
+        StepVerifier.create(reactiveBookService.getBooks(BookFilter.none(), List.of("id", "title")))
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBooksPageWhenThereIsNextPage() {
+        Book book1 = getDefaultBook();
+        Book book2 = getDefaultBook();
+        book2.setId("456");
+        given(reactiveBookRepository.findByIdGreaterThanOrderByIdAsc("100", Limit.of(2))).willReturn(Flux.just(book1, book2));
+
+        StepVerifier.create(reactiveBookService.getBooks(BookCursor.encode("100"), 1))
+                .assertNext(bookPage -> {
+                    assertThat(bookPage.books()).containsExactly(book1);
+                    assertThat(bookPage.next()).isEqualTo(BookCursor.encode(book1.getId()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetBooksPageInformingInvalidCursor() {
+        StepVerifier.create(reactiveBookService.getBooks("%%%", null))
+                .expectError(InvalidBookCursorException.class)
+                .verify();
+    }
+
+    @Test
+    void testValidateAndGetBookWhenNonExistent() {
+        given(reactiveBookRepository.findById(anyString())).willReturn(Mono.empty());
+
+        StepVerifier.create(reactiveBookService.validateAndGetBookById("123"))
+                .expectErrorMatches(throwable -> throwable instanceof BookNotFoundException
+                        && "Book with id '123' not found.".equals(throwable.getMessage()))
+                .verify();
+    }
+
+    @Test
+    void testValidateAndGetBookWhenExistent() {
+        Book book = getDefaultBook();
+        given(reactiveBookRepository.findById(anyString())).willReturn(Mono.just(book));
+
+        StepVerifier.create(reactiveBookService.validateAndGetBookById(book.getId()))
+                .expectNext(book)
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeleteBookRefreshesItsAuthor() {
+        Book book = getDefaultBook();
+        given(reactiveBookRepository.findAndRemoveById(book.getId(), null)).willReturn(Mono.just(book));
+
+        StepVerifier.create(reactiveBookService.deleteBook(book.getId(), null))
+                .expectNext(book)
+                .verifyComplete();
+        then(reactiveAuthorService).should().refreshAuthors(List.of("ivan franchin"));
+    }
+
+    @Test
+    void testUpdateBookAdjustsAuthorsFromTheSameFindAndModify() {
+        Book book = getDefaultBook();
+        Book bookUpdated = new Book(book.getId(), "Ivan G. Franchin", book.getTitle(), book.getPrice());
+        given(reactiveBookRepository.findAndUpdateById(eq(book.getId()), isNull(), any(Update.class)))
+                .willReturn(Mono.just(new BookChange(book, bookUpdated)));
+
+        StepVerifier.create(reactiveBookService.updateBook(book.getId(), null, new UpdateBookRequest("Ivan G. Franchin", null, null)))
+                .expectNext(bookUpdated)
+                .verifyComplete();
+        then(reactiveAuthorService).should().updateBook(book, bookUpdated);
+        then(reactiveBookRepository).should(never()).findById(anyString());
+    }
+
+    private Book getDefaultBook() {
+        Book book = new Book("Ivan Franchin", "SpringBoot", BigDecimal.valueOf(29.99));
+        book.setId("123");
+        return book;
+    }
+}
@@ -23,7 +23,7 @@ docker run -d \
   --restart=unless-stopped \
   --network=springboot-keycloak-mongodb-testcontainers-net \
   --health-cmd="echo 'db.stats().ok' | mongosh localhost:27017/bookdb --quiet" \
-  mongo:${MONGO_VERSION}
+  mongo:${MONGO_VERSION} --replSet rs0 --bind_ip_all
 
 echo
 echo "Starting keycloak"
@@ -42,6 +42,12 @@ docker run -d \
 echo
 wait_for_container_log "mongodb" "Waiting for connections"
 
+echo
+echo "Initiating mongodb replica set"
+echo "------------------------------"
+# A single-node replica set, as change streams are not available on a standalone server
+docker exec mongodb mongosh --quiet --eval 'rs.initiate({_id: "rs0", members: [{_id: 0, host: "localhost:27017"}]})'
+
 echo
 wait_for_container_log "keycloak" "started in"
 
@@ -69,18 +69,28 @@ BOOK_SERVICE_CLIENT_SECRET=$(curl -s -X POST "http://$KEYCLOAK_HOST_PORT/admin/r
 echo "BOOK_SERVICE_CLIENT_SECRET=$BOOK_SERVICE_CLIENT_SECRET"
 echo
 
-echo "Creating client role"
-echo "--------------------"
+echo "Creating client roles"
+echo "---------------------"
 
 curl -i -X POST "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/clients/$CLIENT_ID/roles" \
   -H "Authorization: Bearer $ADMIN_TOKEN" \
   -H "Content-Type: application/json" \
   -d '{"name": "manage_books"}'
 
-ROLE_ID=$(curl -s "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/clients/$CLIENT_ID/roles" \
-  -H "Authorization: Bearer $ADMIN_TOKEN" | jq -r '.[0].id')
+curl -i -X POST "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/clients/$CLIENT_ID/roles" \
+  -H "Authorization: Bearer $ADMIN_TOKEN" \
+  -H "Content-Type: application/json" \
+  -d '{"name": "read_metrics"}'
+
+ROLE_ID=$(curl -s "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/clients/$CLIENT_ID/roles/manage_books" \
+  -H "Authorization: Bearer $ADMIN_TOKEN" | jq -r '.id')
 
 echo "ROLE_ID=$ROLE_ID"
+
+METRICS_ROLE_ID=$(curl -s "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/clients/$CLIENT_ID/roles/read_metrics" \
+  -H "Authorization: Bearer $ADMIN_TOKEN" | jq -r '.id')
+
+echo "METRICS_ROLE_ID=$METRICS_ROLE_ID"
 echo
 
 echo "Creating user"
@@ -95,13 +105,13 @@ USER_ID=$(curl -si -X POST "http://$KEYCLOAK_HOST_PORT/admin/realms/company-serv
 echo "USER_ID=$USER_ID"
 echo
 
-echo "Setting client role to user"
-echo "---------------------------"
+echo "Setting client roles to user"
+echo "----------------------------"
 
 curl -i -X POST "http://$KEYCLOAK_HOST_PORT/admin/realms/company-services/users/$USER_ID/role-mappings/clients/$CLIENT_ID" \
   -H "Authorization: Bearer $ADMIN_TOKEN" \
   -H "Content-Type: application/json" \
-  -d '[{"id":"'"$ROLE_ID"'","name":"manage_books"}]'
+  -d '[{"id":"'"$ROLE_ID"'","name":"manage_books"},{"id":"'"$METRICS_ROLE_ID"'","name":"read_metrics"}]'
 
 echo "Getting user access token"
 echo "-------------------------"